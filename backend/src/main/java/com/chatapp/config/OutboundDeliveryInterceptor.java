@@ -0,0 +1,281 @@
+package com.chatapp.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Per-session delivery queue on clientOutboundChannel. Frames for a connected session are held here and
+// handed to the channel executor one at a time, so each client gets its frames in publish order and a
+// slow client's backlog sits in a bounded queue instead of piling up in front of its socket.
+// Once a backlog builds, new typing, presence and read-status frames are dropped at their own depths.
+// At max-depth, queued frames of those kinds are evicted (typing first) to make room. A session whose
+// backlog is all chat messages is sent a STOMP ERROR, which closes it, and the client resyncs on reconnect.
+@Component
+public class OutboundDeliveryInterceptor implements ExecutorChannelInterceptor {
+
+    // Droppable kinds first, in eviction order
+    enum Kind {
+        TYPING("typing"), PRESENCE("presence"), READ_STATUS("read-status"), MESSAGE("message"), CONTROL("control");
+
+        final String tag;
+
+        Kind(String tag) {
+            this.tag = tag;
+        }
+
+        boolean droppable() {
+            return ordinal() < MESSAGE.ordinal();
+        }
+    }
+
+    static final String OVERFLOW_ERROR = "Too many undelivered messages; reconnect to resync";
+
+    @Value("${chatapp.websocket.outbound.queue.typing-drop-depth:16}")
+    private int typingDropDepth;
+
+    @Value("${chatapp.websocket.outbound.queue.presence-drop-depth:64}")
+    private int presenceDropDepth;
+
+    @Value("${chatapp.websocket.outbound.queue.read-status-drop-depth:128}")
+    private int readStatusDropDepth;
+
+    @Value("${chatapp.websocket.outbound.queue.max-depth:1024}")
+    private int maxDepth;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, SessionQueue> sessions = new ConcurrentHashMap<>();
+    // The frame this thread is handing to the channel itself; preSend lets it through
+    private final ThreadLocal<Message<?>> releasing = new ThreadLocal<>();
+
+    private final AtomicInteger[] queued = new AtomicInteger[Kind.values().length];
+    private final Counter[] dropped = new Counter[Kind.values().length];
+    private Counter disconnects;
+
+    @PostConstruct
+    void init() {
+        for (Kind kind : Kind.values()) {
+            queued[kind.ordinal()] = new AtomicInteger();
+            Gauge.builder("chatapp.websocket.outbound.queued", queued[kind.ordinal()], AtomicInteger::get)
+                    .tag("type", kind.tag)
+                    .register(meterRegistry);
+            dropped[kind.ordinal()] = Counter.builder("chatapp.websocket.outbound.dropped")
+                    .tag("type", kind.tag)
+                    .register(meterRegistry);
+        }
+        disconnects = Counter.builder("chatapp.websocket.outbound.disconnects").register(meterRegistry);
+        Gauge.builder("chatapp.websocket.outbound.max-session-depth", this, OutboundDeliveryInterceptor::maxSessionDepth)
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (sessionId != null) {
+            sessions.putIfAbsent(sessionId, new SessionQueue(sessionId));
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        SessionQueue queue = sessions.remove(event.getSessionId());
+        if (queue != null) {
+            queue.clear();
+        }
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (releasing.get() == message) {
+            return message;
+        }
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        // CONNECTED and anything else before the session is registered (or after it closed) goes straight through
+        SessionQueue queue = sessionId != null ? sessions.get(sessionId) : null;
+        if (queue == null) {
+            return message;
+        }
+        release(queue, queue.offer(message, kindOf(message.getHeaders())), channel);
+        return null;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        SessionQueue queue = sessionId != null ? sessions.get(sessionId) : null;
+        if (queue != null) {
+            release(queue, queue.complete(message), channel);
+        }
+    }
+
+    private void release(SessionQueue queue, Message<?> next, MessageChannel channel) {
+        while (next != null) {
+            releasing.set(next);
+            try {
+                channel.send(next);
+                return;
+            } catch (RuntimeException e) {
+                // Executor rejected the task; skip the frame rather than stall the session
+                System.err.println("Outbound frame for session " + queue.sessionId + " not delivered: " + e.getMessage());
+                next = queue.complete(next);
+            } finally {
+                releasing.remove();
+            }
+        }
+    }
+
+    static Kind kindOf(MessageHeaders headers) {
+        // User destinations arrive as /queue/x-user{session}; the original /user/queue/x is kept alongside
+        Object original = headers.get(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION);
+        String destination = original instanceof String ? (String) original : SimpMessageHeaderAccessor.getDestination(headers);
+        if (destination == null || destination.endsWith("/errors")) {
+            return Kind.CONTROL;
+        }
+        if (destination.endsWith("/typing")) {
+            return Kind.TYPING;
+        }
+        if (destination.endsWith("/user-status")) {
+            return Kind.PRESENCE;
+        }
+        if (destination.endsWith("/status")) {
+            return Kind.READ_STATUS;
+        }
+        return Kind.MESSAGE;
+    }
+
+    private int dropDepth(Kind kind) {
+        return switch (kind) {
+            case TYPING -> typingDropDepth;
+            case PRESENCE -> presenceDropDepth;
+            case READ_STATUS -> readStatusDropDepth;
+            default -> Integer.MAX_VALUE;
+        };
+    }
+
+    int maxSessionDepth() {
+        int max = 0;
+        for (SessionQueue queue : sessions.values()) {
+            max = Math.max(max, queue.depth());
+        }
+        return max;
+    }
+
+    private record Entry(Message<?> message, Kind kind) {}
+
+    // Frames waiting for one session behind the one currently with the channel executor
+    final class SessionQueue {
+        private final String sessionId;
+        private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+        private Message<?> inFlight;
+        private boolean closing;
+
+        SessionQueue(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        // Returns the frame to hand to the channel now, if the session was idle
+        synchronized Message<?> offer(Message<?> message, Kind kind) {
+            int depth = pending.size();
+            if (closing || depth >= dropDepth(kind)) {
+                dropped[kind.ordinal()].increment();
+                return null;
+            }
+            if (depth >= maxDepth && !evictDroppable()) {
+                overflow(kind);
+                return null;
+            }
+            pending.add(new Entry(message, kind));
+            queued[kind.ordinal()].incrementAndGet();
+            return inFlight == null ? next() : null;
+        }
+
+        // The executor finished `message`; returns the next frame to hand over
+        synchronized Message<?> complete(Message<?> message) {
+            if (inFlight != message) {
+                return null;
+            }
+            inFlight = null;
+            return next();
+        }
+
+        synchronized int depth() {
+            return pending.size();
+        }
+
+        synchronized void clear() {
+            closing = true;
+            for (Entry entry : pending) {
+                queued[entry.kind.ordinal()].decrementAndGet();
+            }
+            pending.clear();
+        }
+
+        private Message<?> next() {
+            Entry entry = pending.poll();
+            if (entry == null) {
+                return null;
+            }
+            queued[entry.kind.ordinal()].decrementAndGet();
+            inFlight = entry.message;
+            return inFlight;
+        }
+
+        private boolean evictDroppable() {
+            for (Kind kind : Kind.values()) {
+                if (!kind.droppable()) {
+                    return false;
+                }
+                for (Iterator<Entry> it = pending.iterator(); it.hasNext(); ) {
+                    if (it.next().kind == kind) {
+                        it.remove();
+                        queued[kind.ordinal()].decrementAndGet();
+                        dropped[kind.ordinal()].increment();
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        // Nothing left to shed: discard the backlog and queue an ERROR frame, which closes the session
+        private void overflow(Kind kind) {
+            dropped[kind.ordinal()].increment();
+            for (Entry entry : pending) {
+                queued[entry.kind.ordinal()].decrementAndGet();
+                dropped[entry.kind.ordinal()].increment();
+            }
+            pending.clear();
+            closing = true;
+            disconnects.increment();
+            System.err.println("Closing session " + sessionId + ": outbound queue over " + maxDepth);
+
+            StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.ERROR);
+            accessor.setMessage(OVERFLOW_ERROR);
+            accessor.setSessionId(sessionId);
+            pending.add(new Entry(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), Kind.CONTROL));
+            queued[Kind.CONTROL.ordinal()].incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.chatapp.config;
+
+import com.chatapp.service.RoomMembershipCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+
+// Inbound frames that would reach traffic the session's user may not see are dropped. SUBSCRIBE is
+// allowed to exactly /topic/chatroom/{id}, /topic/chatroom/{id}/typing and /topic/chatroom/{id}/status
+// for members of that room, and to the user's own /user/queue/... destinations; anything else, including
+// patterns (the broker matches subscriptions as Ant patterns, so /topic/** would see every room), is
+// refused. Clients may not SEND straight to broker or user destinations (room sends go through /app,
+// where ChatController checks the room).
+@Component
+public class RoomAccessInterceptor implements ChannelInterceptor {
+
+    static final String ROOM_TOPIC_PREFIX = "/topic/chatroom/";
+    static final String USER_QUEUE_PREFIX = "/user/queue/";
+
+    @Autowired
+    private RoomMembershipCache membershipCache;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null) {
+            return message;
+        }
+
+        if (type == SimpMessageType.SUBSCRIBE) {
+            Long userId = userIdOf(message);
+            if (!maySubscribe(destination, userId)) {
+                System.err.println("Rejected subscription to " + destination + " for user " + userId);
+                return null;
+            }
+        } else if (type == SimpMessageType.MESSAGE && (destination.startsWith("/topic/")
+                || destination.startsWith("/queue/") || destination.startsWith("/user/"))) {
+            System.err.println("Rejected client SEND to broker destination " + destination);
+            return null;
+        }
+        return message;
+    }
+
+    private boolean maySubscribe(String destination, Long userId) {
+        if (userId == null || isPattern(destination)) {
+            return false;
+        }
+        // Resolved to this session's own queue by the user destination handler
+        if (destination.startsWith(USER_QUEUE_PREFIX) && destination.length() > USER_QUEUE_PREFIX.length()) {
+            return true;
+        }
+        long chatRoomId = roomIdOf(destination);
+        return chatRoomId >= 0 && membershipCache.isMember(chatRoomId, userId);
+    }
+
+    private static boolean isPattern(String destination) {
+        for (int i = 0; i < destination.length(); i++) {
+            char c = destination.charAt(i);
+            if (c == '*' || c == '?' || c == '{') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Parses the id in /topic/chatroom/{id}, /topic/chatroom/{id}/typing or /topic/chatroom/{id}/status
+    // without allocating; -1 for any other destination
+    static long roomIdOf(String destination) {
+        if (!destination.startsWith(ROOM_TOPIC_PREFIX)) {
+            return -1;
+        }
+        int start = ROOM_TOPIC_PREFIX.length();
+        int end = destination.indexOf('/', start);
+        if (end < 0) {
+            end = destination.length();
+        }
+        if (end == start || end - start > 18) {
+            return -1;
+        }
+        long id = 0;
+        for (int i = start; i < end; i++) {
+            char c = destination.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return end == destination.length() || isSuffix(destination, end, "/typing")
+                || isSuffix(destination, end, "/status") ? id : -1;
+    }
+
+    private static boolean isSuffix(String destination, int from, String suffix) {
+        return destination.length() - from == suffix.length() && destination.startsWith(suffix, from);
+    }
+
+    private static Long userIdOf(Message<?> message) {
+        Map<String, Object> attributes = SimpMessageHeaderAccessor.getSessionAttributes(message.getHeaders());
+        return attributes != null ? (Long) attributes.get("userId") : null;
+    }
+}
@@ -1,8 +1,13 @@
 package com.chatapp.config;
 
+import com.chatapp.security.CustomUserDetailsService;
 import com.chatapp.security.JwtUtils;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.config.ChannelRegistration;
@@ -11,11 +16,13 @@ import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
@@ -24,9 +31,99 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private RoomAccessInterceptor roomAccessInterceptor;
+
+    @Autowired
+    private OutboundDeliveryInterceptor outboundDeliveryInterceptor;
+
+    // "simple" keeps subscriptions in this JVM; "relay" forwards /topic and /queue to an external
+    // STOMP broker so several backend nodes can share fan-out
+    @Value("${chatapp.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${chatapp.websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${chatapp.websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${chatapp.websocket.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${chatapp.websocket.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    // The same switch Spring Boot uses to put Tomcat and @Async/@Scheduled on virtual threads (Java 21+)
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Virtual mode: still a concurrency cap, but tasks run on virtual threads (idle ones exit after the
+    // one-second keep-alive), so a handler waiting on the database costs no platform thread
+    @Value("${chatapp.websocket.virtual.max-concurrency:1000}")
+    private int virtualMaxConcurrency;
+
+    // Platform mode only: threads handling inbound frames and writing outbound ones. Handlers block on
+    // the database, so there is little point in going far past the connection pool size.
+    @Value("${chatapp.websocket.inbound.pool-size:32}")
+    private int inboundPoolSize;
+
+    @Value("${chatapp.websocket.outbound.pool-size:16}")
+    private int outboundPoolSize;
+
+    @Value("${chatapp.websocket.outbound.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${chatapp.websocket.outbound.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @PostConstruct
+    void checkThreadingMode() {
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("spring.threads.virtual.enabled needs Java 21 or later, running on "
+                    + Runtime.version());
+        }
+    }
+
+    private void configureExecutor(ChannelRegistration registration, String name, int poolSize) {
+        if (virtualThreads) {
+            // Channel registration only takes a ThreadPoolTaskExecutor, so give one a virtual thread factory
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setThreadFactory(new VirtualThreadTaskExecutor(name + "-").getVirtualThreadFactory());
+            executor.setCorePoolSize(virtualMaxConcurrency);
+            executor.setMaxPoolSize(virtualMaxConcurrency);
+            executor.setKeepAliveSeconds(1);
+            executor.setAllowCoreThreadTimeOut(true);
+            registration.taskExecutor(executor);
+        } else {
+            registration.taskExecutor()
+                    .corePoolSize(poolSize)
+                    .maxPoolSize(poolSize)
+                    .keepAliveSeconds(60);
+        }
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    // Let /user destinations resolve sessions connected to other nodes
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+        } else if ("simple".equalsIgnoreCase(brokerMode)) {
+            config.enableSimpleBroker("/topic", "/queue");
+        } else {
+            throw new IllegalStateException("Unknown chatapp.websocket.broker.mode: " + brokerMode);
+        }
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
@@ -36,10 +133,31 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
+        // Same broker over a plain WebSocket: no SockJS framing or fallback HTTP transports, and the
+        // browser's permessage-deflate compression applies to every frame
+        registry.addEndpoint("/ws-native")
+                .setAllowedOriginPatterns("*");
+        // One client's frames are handled in the order they arrived, however many threads handle them
+        registry.setPreserveReceiveOrder(true);
+    }
+
+    // Per-session ordering and backpressure come from OutboundDeliveryInterceptor; the transport limits are
+    // the last line for frames that bypass it (CONNECTED, heartbeats)
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        configureExecutor(registration, "stomp-outbound", outboundPoolSize);
+        registration.interceptors(outboundDeliveryInterceptor);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit);
     }
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
+        configureExecutor(registration, "stomp-inbound", inboundPoolSize);
         registration.interceptors(new ChannelInterceptor() {
             @Override
             public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -49,19 +167,25 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                     String authToken = accessor.getFirstNativeHeader("Authorization");
                     if (authToken != null && authToken.startsWith("Bearer ")) {
                         String jwt = authToken.substring(7);
-                        if (jwtUtils.validateJwtToken(jwt)) {
-                            String username = jwtUtils.getUserNameFromJwtToken(jwt);
+                        Claims claims = jwtUtils.parseClaims(jwt);
+                        if (claims != null) {
+                            String username = claims.getSubject();
                             accessor.getSessionAttributes().put("username", username);
+                            // Cached once per session for high-frequency frames such as typing
+                            accessor.getSessionAttributes().put("userId",
+                                    userDetailsService.loadCachedPrincipal(username).getId());
                             
                             // Set authentication in security context
                             UsernamePasswordAuthenticationToken authentication = 
                                 new UsernamePasswordAuthenticationToken(username, null, null);
                             SecurityContextHolder.getContext().setAuthentication(authentication);
+                            // Session principal, so /user destinations resolve by username
+                            accessor.setUser(authentication);
                         }
                     }
                 }
                 return message;
             }
-        });
+        }, roomAccessInterceptor);
     }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import com.chatapp.dto.SignupRequest;
 import com.chatapp.model.User;
 import com.chatapp.repository.UserRepository;
 import com.chatapp.security.JwtUtils;
+import com.chatapp.security.PrincipalCache;
 import com.chatapp.security.UserPrincipal;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,6 +34,9 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    PrincipalCache principalCache;
+
     @PostMapping("/signin")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
 
@@ -70,6 +74,7 @@ public class AuthController {
                 encoder.encode(signUpRequest.getPassword()));
 
         userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
 
         return ResponseEntity.ok("User registered successfully!");
     }
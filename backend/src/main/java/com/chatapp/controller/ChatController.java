@@ -1,13 +1,17 @@
 package com.chatapp.controller;
 
 import com.chatapp.dto.MessageRequest;
+import com.chatapp.dto.TypingRequest;
 import com.chatapp.model.Message;
 import com.chatapp.service.ChatService;
+import com.chatapp.service.RoomMembershipCache;
+import com.chatapp.service.TypingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Controller;
+import java.util.Map;
 
 @Controller
 public class ChatController {
@@ -15,16 +19,46 @@ public class ChatController {
     @Autowired
     private ChatService chatService;
 
+    @Autowired
+    private TypingService typingService;
+
+    @Autowired
+    private RoomMembershipCache membershipCache;
+
     @MessageMapping("/chat.sendMessage")
     public void sendMessage(@Payload MessageRequest messageRequest, SimpMessageHeaderAccessor headerAccessor) {
-        String username = (String) headerAccessor.getSessionAttributes().get("username");
-        chatService.sendMessage(messageRequest, username);
+        if (!isMember(headerAccessor, messageRequest.getChatRoomId())) {
+            return;
+        }
+        chatService.sendMessage(messageRequest, authenticatedUsername(headerAccessor));
+    }
+
+    // Identity comes from the attributes stored at CONNECT, so a keystroke never hits the database
+    @MessageMapping("/chat.typing")
+    public void typing(@Payload TypingRequest typingRequest, SimpMessageHeaderAccessor headerAccessor) {
+        Map<String, Object> attributes = headerAccessor.getSessionAttributes();
+        typingService.typing((Long) attributes.get("userId"), (String) attributes.get("username"),
+                typingRequest.getChatRoomId(), typingRequest.isTyping(),
+                headerAccessor.getSessionId(), typingRequest.getSeq());
     }
 
+    // The joining user is whoever authenticated the session; the payload's content is not trusted as a name
     @MessageMapping("/chat.addUser")
     public void addUser(@Payload MessageRequest messageRequest, SimpMessageHeaderAccessor headerAccessor) {
-        String username = messageRequest.getContent();
-        headerAccessor.getSessionAttributes().put("username", username);
-        chatService.addUser(messageRequest, username);
+        if (!isMember(headerAccessor, messageRequest.getChatRoomId())) {
+            return;
+        }
+        chatService.addUser(messageRequest, authenticatedUsername(headerAccessor));
+    }
+
+    // Set from the JWT at CONNECT and never from a frame, so it always matches the userId that was authorised
+    private String authenticatedUsername(SimpMessageHeaderAccessor headerAccessor) {
+        return (String) headerAccessor.getSessionAttributes().get("username");
+    }
+
+    // Served from RoomMembershipCache, so authorising a send costs no query
+    private boolean isMember(SimpMessageHeaderAccessor headerAccessor, Long chatRoomId) {
+        Long userId = (Long) headerAccessor.getSessionAttributes().get("userId");
+        return userId != null && chatRoomId != null && membershipCache.isMember(chatRoomId, userId);
     }
-}
\ No newline at end of file
+}
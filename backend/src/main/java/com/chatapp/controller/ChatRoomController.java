@@ -1,13 +1,21 @@
 package com.chatapp.controller;
 
+import com.chatapp.dto.ChatRoomDto;
 import com.chatapp.dto.ChatRoomRequest;
-import com.chatapp.dto.ChatRoomWithUnreadCount;
+import com.chatapp.dto.MessageDto;
+import com.chatapp.dto.ResyncRequest;
+import com.chatapp.dto.RoomResync;
 import com.chatapp.model.ChatRoom;
-import com.chatapp.model.Message;
+import com.chatapp.security.UserPrincipal;
 import com.chatapp.service.ChatRoomService;
 import com.chatapp.service.MessageService;
+import com.chatapp.service.RoomMembershipCache;
+import com.chatapp.service.TypingService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -24,23 +32,47 @@ public class ChatRoomController {
     @Autowired
     private MessageService messageService;
 
+    @Autowired
+    private TypingService typingService;
+
+    @Autowired
+    private RoomMembershipCache membershipCache;
+
     @GetMapping
-    public ResponseEntity<List<ChatRoomWithUnreadCount>> getUserChatRooms(Authentication authentication) {
-        List<ChatRoomWithUnreadCount> chatRooms = chatRoomService.getUserChatRoomsWithUnreadCount(authentication.getName());
+    public ResponseEntity<List<ChatRoomDto>> getUserChatRooms(@RequestParam(required = false) Integer page,
+                                                              @RequestParam(required = false) Integer size,
+                                                              Authentication authentication) {
+        Pageable pageable = size != null ? PageRequest.of(page != null ? page : 0, size) : Pageable.unpaged();
+        List<ChatRoomDto> chatRooms = chatRoomService.getUserChatRoomsWithUnreadCount(authentication.getName(), pageable);
         return ResponseEntity.ok(chatRooms);
     }
 
     @PostMapping
-    public ResponseEntity<ChatRoom> createChatRoom(@Valid @RequestBody ChatRoomRequest request, 
-                                                   Authentication authentication) {
+    public ResponseEntity<ChatRoomDto> createChatRoom(@Valid @RequestBody ChatRoomRequest request,
+                                                      Authentication authentication) {
         ChatRoom chatRoom = chatRoomService.createChatRoom(request, authentication.getName());
-        return ResponseEntity.ok(chatRoom);
+        return ResponseEntity.ok(ChatRoomDto.of(chatRoom));
     }
 
     @GetMapping("/{chatRoomId}/messages")
-    public ResponseEntity<List<Message>> getChatRoomMessages(@PathVariable Long chatRoomId) {
-        List<Message> messages = messageService.getChatRoomMessages(chatRoomId);
-        return ResponseEntity.ok(messages);
+    public ResponseEntity<List<MessageDto>> getChatRoomMessages(@PathVariable Long chatRoomId,
+                                                                @RequestParam(required = false) Long before,
+                                                                @RequestParam(required = false) Long after,
+                                                                @RequestParam(required = false) Integer limit,
+                                                                Authentication authentication) {
+        if (!isMember(chatRoomId, authentication)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(messageService.getChatRoomMessages(chatRoomId, before, after, limit,
+                authentication.getName()));
+    }
+
+    // One call after a reconnect instead of refetching every room's history
+    @PostMapping("/resync")
+    public ResponseEntity<List<RoomResync>> resync(@Valid @RequestBody ResyncRequest request,
+                                                   Authentication authentication) {
+        return ResponseEntity.ok(messageService.resync(request.getAfterSeq(), request.getLimit(),
+                authentication.getName()));
     }
 
     @PostMapping("/{chatRoomId}/join")
@@ -56,8 +88,11 @@ public class ChatRoomController {
     }
 
     @GetMapping("/{chatRoomId}/last-message")
-    public ResponseEntity<Message> getLastMessage(@PathVariable Long chatRoomId) {
-        Message lastMessage = messageService.getLastMessage(chatRoomId);
+    public ResponseEntity<MessageDto> getLastMessage(@PathVariable Long chatRoomId, Authentication authentication) {
+        if (!isMember(chatRoomId, authentication)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        MessageDto lastMessage = messageService.getLastMessage(chatRoomId);
         return lastMessage != null ? ResponseEntity.ok(lastMessage) : ResponseEntity.notFound().build();
     }
 
@@ -75,11 +110,27 @@ public class ChatRoomController {
         return ResponseEntity.ok("Message marked as read");
     }
 
+    // upTo is a room seq: every message in the room up to it is read
+    @PostMapping("/{chatRoomId}/read")
+    public ResponseEntity<?> markReadUpTo(@PathVariable Long chatRoomId,
+                                          @RequestParam Long upTo,
+                                          Authentication authentication) {
+        messageService.markReadUpTo(chatRoomId, upTo, authentication.getName());
+        return ResponseEntity.ok("Messages marked as read");
+    }
+
     @PostMapping("/{chatRoomId}/typing")
     public ResponseEntity<?> sendTypingIndicator(@PathVariable Long chatRoomId, 
                                                  @RequestParam Boolean isTyping,
                                                  Authentication authentication) {
-        chatRoomService.broadcastTypingIndicator(chatRoomId, authentication.getName(), isTyping);
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        typingService.typing(principal.getId(), principal.getUsername(), chatRoomId, isTyping, null, null);
         return ResponseEntity.ok("Typing indicator sent");
     }
-}
\ No newline at end of file
+
+    // Room contents are for members only; served from RoomMembershipCache, like the STOMP checks
+    private boolean isMember(Long chatRoomId, Authentication authentication) {
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        return membershipCache.isMember(chatRoomId, principal.getId());
+    }
+}
@@ -0,0 +1,52 @@
+package com.chatapp.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import java.util.concurrent.atomic.AtomicLong;
+
+// No connection within the pool's connection-timeout (or the database is down): tell the client to back
+// off and retry instead of returning a 500 after it has waited. This fires exactly when the app is
+// overloaded, so each 503 only bumps a counter and at most one line per LOG_INTERVAL_MS is logged.
+@RestControllerAdvice
+public class DatabaseUnavailableHandler {
+
+    private static final long LOG_INTERVAL_MS = 10_000;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter unavailable;
+    private final AtomicLong nextLogAt = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        unavailable = meterRegistry.counter("chatapp.http.database-unavailable");
+    }
+
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<String> databaseUnavailable(RuntimeException e) {
+        unavailable.increment();
+        long now = System.currentTimeMillis();
+        long logAt = nextLogAt.get();
+        if (now >= logAt && nextLogAt.compareAndSet(logAt, now + LOG_INTERVAL_MS)) {
+            long others = suppressed.getAndSet(0);
+            System.err.println("Database unavailable: " + e.getMessage()
+                    + (others > 0 ? " (" + others + " more since the last report)" : ""));
+        } else {
+            suppressed.incrementAndGet();
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Service busy, please retry");
+    }
+}
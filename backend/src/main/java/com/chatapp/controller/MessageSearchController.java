@@ -0,0 +1,28 @@
+package com.chatapp.controller;
+
+import com.chatapp.dto.MessageSearchHit;
+import com.chatapp.service.MessageSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/messages")
+public class MessageSearchController {
+
+    @Autowired
+    private MessageSearchService messageSearchService;
+
+    // Newest matches first; pass the last hit's id as "before" for the next page
+    @GetMapping("/search")
+    public ResponseEntity<List<MessageSearchHit>> searchMessages(@RequestParam String q,
+                                                                 @RequestParam(required = false) Long chatRoomId,
+                                                                 @RequestParam(required = false) Long before,
+                                                                 @RequestParam(required = false) Integer limit,
+                                                                 Authentication authentication) {
+        return ResponseEntity.ok(messageSearchService.search(q, chatRoomId, before, limit, authentication.getName()));
+    }
+}
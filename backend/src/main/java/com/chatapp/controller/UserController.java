@@ -1,11 +1,14 @@
 package com.chatapp.controller;
 
+import com.chatapp.dto.UserDto;
 import com.chatapp.model.User;
 import com.chatapp.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -17,15 +20,28 @@ public class UserController {
     private UserService userService;
 
     @GetMapping("/search")
-    public ResponseEntity<List<User>> searchUsers(@RequestParam String query, Authentication authentication) {
-        List<User> users = userService.searchUsers(query, authentication.getName());
-        return ResponseEntity.ok(users);
+    public ResponseEntity<List<UserDto>> searchUsers(@RequestParam String query,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     Authentication authentication) {
+        List<User> users = userService.searchUsers(query, limit, authentication.getName());
+        return ResponseEntity.ok(users.stream().map(UserDto::of).toList());
     }
 
+    // Directory in username order; pass the last username of a page as `after` to get the next one
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers(Authentication authentication) {
-        List<User> users = userService.getAllUsersExceptCurrent(authentication.getName());
-        return ResponseEntity.ok(users);
+    public ResponseEntity<List<UserDto>> getUsers(@RequestParam(required = false) String after,
+                                                  @RequestParam(required = false) Integer limit,
+                                                  Authentication authentication) {
+        List<User> users = userService.getDirectoryPage(after, limit, authentication.getName());
+        return ResponseEntity.ok(users.stream().map(UserDto::of).toList());
+    }
+
+    // The whole directory as newline-delimited JSON, streamed as it is read
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers(Authentication authentication) {
+        String username = authentication.getName();
+        StreamingResponseBody body = out -> userService.exportDirectory(username, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @PostMapping("/status")
@@ -0,0 +1,28 @@
+package com.chatapp.dto;
+
+import com.chatapp.model.ChatRoom;
+import com.chatapp.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Compact room payload pushed to each member's /user/queue/chatroom-created
+public record ChatRoomCreatedEvent(Long id, String name, String type, LocalDateTime createdAt,
+                                   Member createdBy, List<Member> members) {
+
+    public record Member(Long id, String username, Boolean isOnline) {
+        static Member of(User user) {
+            return user == null ? null : new Member(user.getId(), user.getUsername(), user.getIsOnline());
+        }
+    }
+
+    public static ChatRoomCreatedEvent of(ChatRoom chatRoom) {
+        return new ChatRoomCreatedEvent(
+                chatRoom.getId(),
+                chatRoom.getName(),
+                chatRoom.getType().name(),
+                chatRoom.getCreatedAt(),
+                Member.of(chatRoom.getCreatedBy()),
+                chatRoom.getMembers().stream().map(Member::of).toList());
+    }
+}
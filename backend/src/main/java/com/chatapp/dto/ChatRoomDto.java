@@ -0,0 +1,59 @@
+package com.chatapp.dto;
+
+import com.chatapp.model.ChatRoom;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Wire form of a chat list entry: flat members and creator, last message as a MessageDto.
+// lastMessageSeq is where a client resumes from after reconnecting (see MessageService.resync).
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ChatRoomDto(Long id, String name, String type, LocalDateTime createdAt,
+                          UserDto createdBy, List<UserDto> members,
+                          MessageDto lastMessage, LocalDateTime lastMessageTime, int unreadCount,
+                          Long lastMessageSeq) {
+
+    // Built from the flat chat list row
+    public static ChatRoomDto of(ChatRoomSummary summary, List<UserDto> members) {
+        UserDto createdBy = summary.getCreatedById() == null ? null
+                : new UserDto(summary.getCreatedById(), summary.getCreatedByUsername(), null, null);
+
+        MessageDto lastMessage = summary.getLastMessageId() == null ? null
+                : new MessageDto(
+                        summary.getLastMessageId(),
+                        summary.getLastMessageSeq(),
+                        summary.getLastMessageContent(),
+                        summary.getLastMessageType(),
+                        summary.getLastMessageTime(),
+                        summary.getId(),
+                        new MessageDto.Sender(summary.getLastMessageSenderId(), summary.getLastMessageSenderUsername()));
+
+        return new ChatRoomDto(
+                summary.getId(),
+                summary.getName(),
+                summary.getType(),
+                summary.getCreatedAt(),
+                createdBy,
+                members,
+                lastMessage,
+                lastMessage != null ? lastMessage.createdAt() : null,
+                summary.getUnreadCount() != null ? summary.getUnreadCount().intValue() : 0,
+                summary.getRoomLastMessageSeq());
+    }
+
+    // A room that was just created: no messages yet
+    public static ChatRoomDto of(ChatRoom chatRoom) {
+        return new ChatRoomDto(
+                chatRoom.getId(),
+                chatRoom.getName(),
+                chatRoom.getType().name(),
+                chatRoom.getCreatedAt(),
+                UserDto.of(chatRoom.getCreatedBy()),
+                chatRoom.getMembers().stream().map(UserDto::of).toList(),
+                null,
+                null,
+                0,
+                chatRoom.getLastMessageSeq());
+    }
+}
@@ -0,0 +1,12 @@
+package com.chatapp.dto;
+
+import java.time.LocalDateTime;
+
+// Member row returned by ChatRoomRepository.findMemberSummaries
+public interface ChatRoomMemberSummary {
+    Long getChatRoomId();
+    Long getId();
+    String getUsername();
+    Boolean getIsOnline();
+    LocalDateTime getLastSeen();
+}
@@ -0,0 +1,11 @@
+package com.chatapp.dto;
+
+import java.time.LocalDateTime;
+
+// Flat row returned by ChatRoomReadStateRepository.findReadProgress; fields are null when no row matched
+public interface ChatRoomReadProgress {
+    Long getOwnReadSeq();
+
+    Long getOthersReadSeq();
+    LocalDateTime getOthersReadAt();
+}
@@ -0,0 +1,26 @@
+package com.chatapp.dto;
+
+import java.time.LocalDateTime;
+
+// Flat row returned by ChatRoomRepository.findChatRoomSummaries
+public interface ChatRoomSummary {
+    Long getId();
+    String getName();
+    String getType();
+    LocalDateTime getCreatedAt();
+
+    Long getCreatedById();
+    String getCreatedByUsername();
+
+    Long getRoomLastMessageSeq();
+
+    Long getLastMessageId();
+    Long getLastMessageSeq();
+    String getLastMessageContent();
+    String getLastMessageType();
+    LocalDateTime getLastMessageTime();
+    Long getLastMessageSenderId();
+    String getLastMessageSenderUsername();
+
+    Long getUnreadCount();
+}
@@ -0,0 +1,52 @@
+package com.chatapp.dto;
+
+import com.chatapp.model.Message;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+// Wire form of a chat message: the room by id and the sender as id + username. seq is the message's
+// position in its room (see RoomSequenceAllocator). Delivery and read state are only set for history
+// requests, where they are relative to the requesting user.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MessageDto(Long id, Long seq, String content, String type, LocalDateTime createdAt,
+                         Long chatRoomId, Sender sender,
+                         Boolean isDelivered, Boolean isRead, LocalDateTime readAt) {
+
+    public record Sender(Long id, String username) {}
+
+    public MessageDto(Long id, Long seq, String content, String type, LocalDateTime createdAt, Long chatRoomId,
+                      Sender sender) {
+        this(id, seq, content, type, createdAt, chatRoomId, sender, null, null, null);
+    }
+
+    public static MessageDto of(Message message) {
+        return new MessageDto(
+                message.getId(),
+                message.getRoomSeq(),
+                message.getContent(),
+                message.getType().name(),
+                message.getCreatedAt(),
+                message.getChatRoom().getId(),
+                new Sender(message.getSender().getId(), message.getSender().getUsername()));
+    }
+
+    public static MessageDto withReadState(Message message) {
+        return new MessageDto(
+                message.getId(),
+                message.getRoomSeq(),
+                message.getContent(),
+                message.getType().name(),
+                message.getCreatedAt(),
+                message.getChatRoom().getId(),
+                new Sender(message.getSender().getId(), message.getSender().getUsername()),
+                message.getIsDelivered(),
+                message.getIsRead(),
+                message.getReadAt());
+    }
+
+    // History form of a stored message as seen by one user; stored messages are always delivered
+    public MessageDto withReadState(boolean read, LocalDateTime readAt) {
+        return new MessageDto(id, seq, content, type, createdAt, chatRoomId, sender, Boolean.TRUE, read, readAt);
+    }
+}
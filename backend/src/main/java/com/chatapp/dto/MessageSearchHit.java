@@ -0,0 +1,4 @@
+package com.chatapp.dto;
+
+// One search result: the message plus an HTML-escaped snippet with the matched terms wrapped in <mark>
+public record MessageSearchHit(MessageDto message, String highlight) {}
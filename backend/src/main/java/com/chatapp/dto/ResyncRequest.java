@@ -0,0 +1,28 @@
+package com.chatapp.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.util.Map;
+
+public class ResyncRequest {
+    // Room id -> last message seq the client has seen in that room
+    @NotNull
+    private Map<Long, Long> afterSeq;
+
+    private Integer limit;
+
+    public Map<Long, Long> getAfterSeq() {
+        return afterSeq;
+    }
+
+    public void setAfterSeq(Map<Long, Long> afterSeq) {
+        this.afterSeq = afterSeq;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+}
@@ -0,0 +1,7 @@
+package com.chatapp.dto;
+
+import java.util.List;
+
+// Messages a client missed in one room, in unbroken seq order; complete is false when more than the page
+// limit were missed, or a message in between is still being written, and the client should reload the room
+public record RoomResync(Long chatRoomId, List<MessageDto> messages, boolean complete) {}
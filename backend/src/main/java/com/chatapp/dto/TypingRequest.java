@@ -0,0 +1,37 @@
+package com.chatapp.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public class TypingRequest {
+    @NotNull
+    private Long chatRoomId;
+
+    private boolean typing;
+
+    // Per-connection counter from the client; lets the server drop events that arrive out of order
+    private Long seq;
+
+    public Long getChatRoomId() {
+        return chatRoomId;
+    }
+
+    public void setChatRoomId(Long chatRoomId) {
+        this.chatRoomId = chatRoomId;
+    }
+
+    public boolean isTyping() {
+        return typing;
+    }
+
+    public void setTyping(boolean typing) {
+        this.typing = typing;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+}
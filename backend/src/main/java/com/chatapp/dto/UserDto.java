@@ -0,0 +1,16 @@
+package com.chatapp.dto;
+
+import com.chatapp.model.User;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+// Wire form of a user for lists, search and room members; no email, password or room graph
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserDto(Long id, String username, Boolean isOnline, LocalDateTime lastSeen) {
+
+    public static UserDto of(User user) {
+        return user == null ? null
+                : new UserDto(user.getId(), user.getUsername(), user.getIsOnline(), user.getLastSeen());
+    }
+}
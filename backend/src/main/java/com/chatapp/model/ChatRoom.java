@@ -13,8 +13,11 @@ import java.util.Set;
 @Table(name = "chat_rooms")
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class ChatRoom {
+    public static final int PREVIEW_LENGTH = 200;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_room_seq")
+    @SequenceGenerator(name = "chat_room_seq", sequenceName = "chat_rooms_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -31,6 +34,20 @@ public class ChatRoom {
     @JoinColumn(name = "created_by")
     private User createdBy;
 
+    // Only advanced by RoomSequenceAllocator in SQL; never written back from a loaded entity
+    @Column(name = "last_message_seq", nullable = false, updatable = false)
+    private Long lastMessageSeq = 0L;
+
+    // Newest message, set by RoomSequenceAllocator.claim together with the seq; read-only here
+    @Column(name = "last_message_id", insertable = false, updatable = false)
+    private Long lastMessageId;
+
+    @Column(name = "last_message_at", insertable = false, updatable = false)
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "last_message_preview", length = PREVIEW_LENGTH, insertable = false, updatable = false)
+    private String lastMessagePreview;
+
     @ManyToMany
     @JoinTable(
         name = "chat_room_members",
@@ -74,6 +91,17 @@ public class ChatRoom {
     public User getCreatedBy() { return createdBy; }
     public void setCreatedBy(User createdBy) { this.createdBy = createdBy; }
 
+    public Long getLastMessageSeq() { return lastMessageSeq; }
+    public void setLastMessageSeq(Long lastMessageSeq) { this.lastMessageSeq = lastMessageSeq; }
+
+    public Long getLastMessageId() { return lastMessageId; }
+    public LocalDateTime getLastMessageAt() { return lastMessageAt; }
+    public String getLastMessagePreview() { return lastMessagePreview; }
+
+    public static String previewOf(String content) {
+        return content != null && content.length() > PREVIEW_LENGTH ? content.substring(0, PREVIEW_LENGTH) : content;
+    }
+
     public Set<User> getMembers() { return members; }
     public void setMembers(Set<User> members) { this.members = members; }
 
@@ -0,0 +1,53 @@
+package com.chatapp.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Per-member read watermark: every message in the room with room_seq <= lastReadSeq has been read by the user.
+// Keyed on room_seq rather than the message id: ids come from messages_seq in per-node blocks, so a later
+// message can carry a smaller id, while room_seq follows send order within the room.
+@Entity
+@Table(name = "chat_room_read_states")
+@IdClass(ChatRoomReadStateId.class)
+public class ChatRoomReadState {
+    @Id
+    @Column(name = "chat_room_id")
+    private Long chatRoomId;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "last_read_seq", nullable = false)
+    private Long lastReadSeq = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public ChatRoomReadState() {}
+
+    public ChatRoomReadState(Long chatRoomId, Long userId, Long lastReadSeq) {
+        this.chatRoomId = chatRoomId;
+        this.userId = userId;
+        this.lastReadSeq = lastReadSeq;
+    }
+
+    // Getters and Setters
+    public Long getChatRoomId() { return chatRoomId; }
+    public void setChatRoomId(Long chatRoomId) { this.chatRoomId = chatRoomId; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getLastReadSeq() { return lastReadSeq; }
+    public void setLastReadSeq(Long lastReadSeq) { this.lastReadSeq = lastReadSeq; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
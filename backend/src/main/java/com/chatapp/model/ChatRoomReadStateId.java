@@ -0,0 +1,34 @@
+package com.chatapp.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class ChatRoomReadStateId implements Serializable {
+    private Long chatRoomId;
+    private Long userId;
+
+    // Constructors
+    public ChatRoomReadStateId() {}
+
+    public ChatRoomReadStateId(Long chatRoomId, Long userId) {
+        this.chatRoomId = chatRoomId;
+        this.userId = userId;
+    }
+
+    // Getters
+    public Long getChatRoomId() { return chatRoomId; }
+    public Long getUserId() { return userId; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ChatRoomReadStateId)) return false;
+        ChatRoomReadStateId that = (ChatRoomReadStateId) o;
+        return Objects.equals(chatRoomId, that.chatRoomId) && Objects.equals(userId, that.userId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(chatRoomId, userId);
+    }
+}
@@ -6,11 +6,19 @@ import jakarta.validation.constraints.NotBlank;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+    @Index(name = "idx_messages_room_created_id", columnList = "chat_room_id, created_at, id"),
+    @Index(name = "idx_messages_room_seq_sender", columnList = "chat_room_id, room_seq", unique = true)
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Message {
+    public static final String ID_SEQUENCE = "messages_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Pooled sequence so ids can also be reserved in blocks outside Hibernate (see MessageIdAllocator)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "message_seq")
+    @SequenceGenerator(name = "message_seq", sequenceName = Message.ID_SEQUENCE, allocationSize = Message.ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotBlank
@@ -33,16 +41,21 @@ public class Message {
     @Enumerated(EnumType.STRING)
     private MessageType type = MessageType.CHAT;
 
+    // Position within the room, assigned by RoomSequenceAllocator before the message is saved
+    @Column(name = "room_seq")
+    private Long roomSeq;
+
     @Column(name = "delivered_at")
     private LocalDateTime deliveredAt;
 
-    @Column(name = "read_at")
+    // Read state is per member (see ChatRoomReadState); these two are filled in for the requesting user
+    @Transient
     private LocalDateTime readAt;
 
     @Column(name = "is_delivered")
     private Boolean isDelivered = false;
 
-    @Column(name = "is_read")
+    @Transient
     private Boolean isRead = false;
 
     @PrePersist
@@ -81,6 +94,9 @@ public class Message {
     public MessageType getType() { return type; }
     public void setType(MessageType type) { this.type = type; }
 
+    public Long getRoomSeq() { return roomSeq; }
+    public void setRoomSeq(Long roomSeq) { this.roomSeq = roomSeq; }
+
     public LocalDateTime getDeliveredAt() { return deliveredAt; }
     public void setDeliveredAt(LocalDateTime deliveredAt) { this.deliveredAt = deliveredAt; }
 
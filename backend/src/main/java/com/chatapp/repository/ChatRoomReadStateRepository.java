@@ -0,0 +1,23 @@
+package com.chatapp.repository;
+
+import com.chatapp.dto.ChatRoomReadProgress;
+import com.chatapp.model.ChatRoomReadState;
+import com.chatapp.model.ChatRoomReadStateId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChatRoomReadStateRepository extends JpaRepository<ChatRoomReadState, ChatRoomReadStateId> {
+    // The viewer's watermark and the furthest one among the other members, aggregated in one row rather than
+    // loading a read state per member. othersReadAt is the other members' most recent read.
+    @Query(value = """
+            SELECT MAX(CASE WHEN r.user_id = :viewerId THEN r.last_read_seq END) AS ownReadSeq,
+                   MAX(CASE WHEN r.user_id <> :viewerId THEN r.last_read_seq END) AS othersReadSeq,
+                   MAX(CASE WHEN r.user_id <> :viewerId THEN r.updated_at END) AS othersReadAt
+            FROM chat_room_read_states r
+            WHERE r.chat_room_id = :chatRoomId
+            """, nativeQuery = true)
+    ChatRoomReadProgress findReadProgress(@Param("chatRoomId") Long chatRoomId, @Param("viewerId") Long viewerId);
+}
@@ -1,20 +1,63 @@
 package com.chatapp.repository;
 
+import com.chatapp.dto.ChatRoomMemberSummary;
+import com.chatapp.dto.ChatRoomSummary;
 import com.chatapp.model.ChatRoom;
 import com.chatapp.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
     List<ChatRoom> findByMembersContaining(User user);
-    
+
+    // Driven by user1's memberships (idx_chat_room_members_user), then the primary key probes for user2
     @Query("SELECT cr FROM ChatRoom cr WHERE cr.type = 'DIRECT' AND :user1 MEMBER OF cr.members AND :user2 MEMBER OF cr.members")
     Optional<ChatRoom> findDirectChatRoom(User user1, User user2);
-    
+
     @Query("SELECT cr FROM ChatRoom cr WHERE cr.type = 'GROUP' AND :user MEMBER OF cr.members")
     List<ChatRoom> findGroupChatRooms(User user);
-}
\ No newline at end of file
+
+    // One statement for the whole chat list: room, last-message pointer and unread count, ordered by last
+    // activity so it can be paged. The member's rooms are found through chat_room_members and then sorted,
+    // which stays cheap at the few hundred rooms a user is in. Id, preview and time come from the pointer,
+    // which with write-behind is set before the message row exists; sender and type follow once it does.
+    @Query(value = """
+            SELECT cr.id AS id, cr.name AS name, cr.type AS type, cr.created_at AS createdAt,
+                   cr.last_message_seq AS roomLastMessageSeq,
+                   cb.id AS createdById, cb.username AS createdByUsername,
+                   cr.last_message_id AS lastMessageId, lm.room_seq AS lastMessageSeq, cr.last_message_preview AS lastMessageContent,
+                   lm.type AS lastMessageType, cr.last_message_at AS lastMessageTime,
+                   ls.id AS lastMessageSenderId, ls.username AS lastMessageSenderUsername,
+                   (SELECT COUNT(*) FROM messages um
+                     WHERE um.chat_room_id = cr.id
+                       AND um.sender_id <> :userId
+                       AND um.room_seq > COALESCE(rs.last_read_seq, 0)) AS unreadCount
+            FROM chat_room_members crm
+            JOIN chat_rooms cr ON cr.id = crm.chat_room_id
+            LEFT JOIN chat_room_read_states rs ON rs.chat_room_id = cr.id AND rs.user_id = crm.user_id
+            LEFT JOIN users cb ON cb.id = cr.created_by
+            LEFT JOIN messages lm ON lm.id = cr.last_message_id
+            LEFT JOIN users ls ON ls.id = lm.sender_id
+            WHERE crm.user_id = :userId
+            ORDER BY COALESCE(cr.last_message_at, cr.created_at) DESC, cr.id DESC
+            """, nativeQuery = true)
+    List<ChatRoomSummary> findChatRoomSummaries(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT cr.id AS chatRoomId, u.id AS id, u.username AS username, " +
+           "u.isOnline AS isOnline, u.lastSeen AS lastSeen " +
+           "FROM ChatRoom cr JOIN cr.members u WHERE cr.id IN :chatRoomIds")
+    List<ChatRoomMemberSummary> findMemberSummaries(@Param("chatRoomIds") Collection<Long> chatRoomIds);
+
+    @Query("SELECT u.id FROM ChatRoom cr JOIN cr.members u WHERE cr.id = :chatRoomId")
+    List<Long> findMemberIds(@Param("chatRoomId") Long chatRoomId);
+
+    @Query("SELECT cr.lastMessageSeq FROM ChatRoom cr WHERE cr.id = :chatRoomId")
+    Optional<Long> findLastMessageSeq(@Param("chatRoomId") Long chatRoomId);
+}
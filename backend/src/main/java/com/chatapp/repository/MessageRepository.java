@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +19,38 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     Page<Message> findByChatRoomOrderByCreatedAtDesc(ChatRoom chatRoom, Pageable pageable);
     Optional<Message> findTopByChatRoomOrderByCreatedAtDesc(ChatRoom chatRoom);
     
-    @Query("SELECT COUNT(m) FROM Message m WHERE m.chatRoom = :chatRoom AND m.sender != :user AND (m.isRead = false OR m.isRead IS NULL)")
+    // Range count above the user's read watermark, served by idx_messages_room_seq_sender
+    @Query("SELECT COUNT(m) FROM Message m WHERE m.chatRoom = :chatRoom AND m.sender != :user AND m.roomSeq > " +
+           "COALESCE((SELECT r.lastReadSeq FROM ChatRoomReadState r " +
+           "WHERE r.chatRoomId = m.chatRoom.id AND r.userId = :#{#user.id}), 0)")
     int countUnreadMessagesForUser(@Param("chatRoom") ChatRoom chatRoom, @Param("user") User user);
+
+    // Keyset pagination over (created_at, id), served by idx_messages_room_created_id
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender JOIN FETCH m.chatRoom WHERE m.chatRoom.id = :chatRoomId " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findLatestByChatRoomId(@Param("chatRoomId") Long chatRoomId, Pageable pageable);
+
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender JOIN FETCH m.chatRoom WHERE m.chatRoom.id = :chatRoomId " +
+           "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findBeforeCursor(@Param("chatRoomId") Long chatRoomId, @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender JOIN FETCH m.chatRoom WHERE m.chatRoom.id = :chatRoomId " +
+           "AND (m.createdAt > :createdAt OR (m.createdAt = :createdAt AND m.id > :id)) " +
+           "ORDER BY m.createdAt ASC, m.id ASC")
+    List<Message> findAfterCursor(@Param("chatRoomId") Long chatRoomId, @Param("createdAt") LocalDateTime createdAt,
+                                  @Param("id") Long id, Pageable pageable);
+
+    // Messages past a client's last seen room sequence, served by idx_messages_room_seq_sender
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender JOIN FETCH m.chatRoom WHERE m.chatRoom.id = :chatRoomId " +
+           "AND m.roomSeq > :afterSeq ORDER BY m.roomSeq ASC")
+    List<Message> findAfterSeq(@Param("chatRoomId") Long chatRoomId, @Param("afterSeq") Long afterSeq,
+                               Pageable pageable);
+
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender JOIN FETCH m.chatRoom WHERE m.id = :id")
+    Optional<Message> findWithSenderById(@Param("id") Long id);
+
+    @Query("SELECT m.createdAt FROM Message m WHERE m.id = :id AND m.chatRoom.id = :chatRoomId")
+    Optional<LocalDateTime> findCreatedAtByIdAndChatRoomId(@Param("id") Long id, @Param("chatRoomId") Long chatRoomId);
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package com.chatapp.repository;
 
 import com.chatapp.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -19,9 +21,34 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("UPDATE User u SET u.isOnline = :status WHERE u.id = :userId")
     void updateUserOnlineStatus(Long userId, Boolean status);
     
-    @Query("SELECT u FROM User u WHERE u.username LIKE %:query% OR u.email LIKE %:query%")
-    List<User> searchUsers(String query);
+    // Ranking shared by both searches: exact username, username prefix, email prefix, then the rest,
+    // shorter names first. Patterns arrive lower-cased and LIKE-escaped from UserService.
+    String SEARCH_ORDER = " ORDER BY CASE WHEN LOWER(u.username) = :exact THEN 0" +
+            " WHEN LOWER(u.username) LIKE :prefix ESCAPE '\\' THEN 1" +
+            " WHEN LOWER(u.email) LIKE :prefix ESCAPE '\\' THEN 2 ELSE 3 END," +
+            " LENGTH(u.username), u.username LIMIT :limit";
+
+    // Username substring (idx_users_username_trgm) or email prefix (idx_users_email_prefix)
+    @Query(value = "SELECT u.* FROM users u WHERE u.id <> :callerId" +
+            " AND (LOWER(u.username) LIKE :contains ESCAPE '\\' OR LOWER(u.email) LIKE :prefix ESCAPE '\\')" +
+            SEARCH_ORDER, nativeQuery = true)
+    List<User> searchUsers(@Param("exact") String exact, @Param("prefix") String prefix,
+                           @Param("contains") String contains, @Param("callerId") Long callerId,
+                           @Param("limit") int limit);
+
+    // Queries too short to form a trigram only match prefixes (idx_users_*_prefix)
+    @Query(value = "SELECT u.* FROM users u WHERE u.id <> :callerId" +
+            " AND (LOWER(u.username) LIKE :prefix ESCAPE '\\' OR LOWER(u.email) LIKE :prefix ESCAPE '\\')" +
+            SEARCH_ORDER, nativeQuery = true)
+    List<User> searchUsersByPrefix(@Param("exact") String exact, @Param("prefix") String prefix,
+                                   @Param("callerId") Long callerId, @Param("limit") int limit);
     
-    @Query("SELECT u FROM User u WHERE u.username != :currentUsername")
-    List<User> findAllExceptCurrent(String currentUsername);
-}
\ No newline at end of file
+    // Keyset page of the directory; the unique index on username serves the range scan
+    @Query("SELECT u FROM User u WHERE u.username > :after AND u.id <> :callerId ORDER BY u.username")
+    List<User> findDirectoryPage(@Param("after") String after, @Param("callerId") Long callerId, Pageable pageable);
+
+    // Everyone sharing at least one room with the user; served by idx_chat_room_members_user
+    @Query("SELECT DISTINCT m.username FROM ChatRoom cr JOIN cr.members self JOIN cr.members m " +
+           "WHERE self.id = :userId AND m.id <> :userId")
+    List<String> findCoMemberUsernames(@Param("userId") Long userId);
+}
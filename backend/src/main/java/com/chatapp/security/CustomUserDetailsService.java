@@ -15,6 +15,9 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    PrincipalCache principalCache;
+
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -23,4 +26,9 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         return UserPrincipal.create(user);
     }
-}
\ No newline at end of file
+
+    // Token-authenticated requests only need identity, so they are served from the principal cache
+    public UserPrincipal loadCachedPrincipal(String username) throws UsernameNotFoundException {
+        return principalCache.get(username, name -> (UserPrincipal) loadUserByUsername(name));
+    }
+}
@@ -0,0 +1,93 @@
+package com.chatapp.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Bounded, TTL-evicting cache of authenticated principals so token-authenticated requests don't hit the users table.
+// Cached principals carry no password hash; login still goes through CustomUserDetailsService.loadUserByUsername.
+@Component
+public class PrincipalCache {
+
+    @Value("${chatapp.auth.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${chatapp.auth.principal-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    @PostConstruct
+    void registerMetrics() {
+        hits = Counter.builder("chatapp.auth.principal.cache").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("chatapp.auth.principal.cache").tag("result", "miss").register(meterRegistry);
+        evictions = Counter.builder("chatapp.auth.principal.cache.evictions").register(meterRegistry);
+        Gauge.builder("chatapp.auth.principal.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    public UserPrincipal get(String username, Function<String, UserPrincipal> loader) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(username);
+        if (entry != null && entry.expiresAt() - now > 0) {
+            hits.increment();
+            return entry.principal();
+        }
+
+        misses.increment();
+        UserPrincipal loaded = loader.apply(username);
+        UserPrincipal principal = new UserPrincipal(loaded.getId(), loaded.getUsername(), loaded.getEmail(), null);
+        entries.put(username, new Entry(principal, now + ttlSeconds * 1_000_000_000L));
+        if (entries.size() > maxSize) {
+            evict(now);
+        }
+        return principal;
+    }
+
+    public void invalidate(String username) {
+        entries.remove(username);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    private void evict(long now) {
+        // Expired entries first, then the oldest tenth so eviction isn't paid on every insert
+        entries.entrySet().removeIf(e -> {
+            boolean expired = e.getValue().expiresAt() - now <= 0;
+            if (expired) {
+                evictions.increment();
+            }
+            return expired;
+        });
+        int excess = entries.size() - maxSize;
+        if (excess > 0) {
+            entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().expiresAt()))
+                    .limit(excess + maxSize / 10)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(key -> {
+                        entries.remove(key);
+                        evictions.increment();
+                    });
+        }
+    }
+
+    private record Entry(UserPrincipal principal, long expiresAt) {}
+}
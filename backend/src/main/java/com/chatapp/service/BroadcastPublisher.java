@@ -0,0 +1,43 @@
+package com.chatapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+// Encodes a broadcast payload to JSON once and hands the broker a byte[] message. Every subscriber
+// session shares that buffer; only the per-session STOMP headers are written per frame.
+@Component
+public class BroadcastPublisher {
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public void publish(String destination, Object payload) {
+        messagingTemplate.send(destination, MessageBuilder.createMessage(encode(payload), jsonHeaders()));
+    }
+
+    public byte[] encode(Object payload) {
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize broadcast payload", e);
+        }
+    }
+
+    private MessageHeaders jsonHeaders() {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
+    }
+}
@@ -1,17 +1,30 @@
 package com.chatapp.service;
 
+import com.chatapp.dto.ChatRoomCreatedEvent;
+import com.chatapp.dto.ChatRoomDto;
+import com.chatapp.dto.ChatRoomMemberSummary;
 import com.chatapp.dto.ChatRoomRequest;
-import com.chatapp.dto.ChatRoomWithUnreadCount;
+import com.chatapp.dto.ChatRoomSummary;
+import com.chatapp.dto.MessageDto;
+import com.chatapp.dto.UserDto;
 import com.chatapp.model.ChatRoom;
+import com.chatapp.model.ChatRoomReadState;
+import com.chatapp.model.ChatRoomReadStateId;
 import com.chatapp.model.Message;
 import com.chatapp.model.User;
+import com.chatapp.repository.ChatRoomReadStateRepository;
 import com.chatapp.repository.ChatRoomRepository;
-import com.chatapp.repository.MessageRepository;
 import com.chatapp.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -24,48 +37,58 @@ public class ChatRoomService {
     @Autowired
     private UserRepository userRepository;
 
+
     @Autowired
-    private MessageRepository messageRepository;
+    private ChatRoomReadStateRepository readStateRepository;
 
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private SimpUserRegistry userRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RoomMembershipCache membershipCache;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private RecentMessageCache recentMessages;
+
     public List<ChatRoom> getUserChatRooms(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        List<ChatRoom> chatRooms = chatRoomRepository.findByMembersContaining(user);
-        
-        // Load the last message for each chat room
-        for (ChatRoom chatRoom : chatRooms) {
-            Optional<Message> lastMessage = messageRepository.findTopByChatRoomOrderByCreatedAtDesc(chatRoom);
-            if (lastMessage.isPresent()) {
-                // We'll handle this in the frontend for now to avoid circular reference issues
-            }
-        }
-        
-        return chatRooms;
+        return chatRoomRepository.findByMembersContaining(user);
     }
 
-    public List<ChatRoomWithUnreadCount> getUserChatRoomsWithUnreadCount(String username) {
+    public List<ChatRoomDto> getUserChatRoomsWithUnreadCount(String username) {
+        return getUserChatRoomsWithUnreadCount(username, Pageable.unpaged());
+    }
+
+    public List<ChatRoomDto> getUserChatRoomsWithUnreadCount(String username, Pageable pageable) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        List<ChatRoom> chatRooms = chatRoomRepository.findByMembersContaining(user);
-        
-        return chatRooms.stream().map(chatRoom -> {
-            ChatRoomWithUnreadCount roomWithCount = new ChatRoomWithUnreadCount(chatRoom, 0);
-            
-            // Get last message
-            Optional<Message> lastMessage = messageRepository.findTopByChatRoomOrderByCreatedAtDesc(chatRoom);
-            if (lastMessage.isPresent()) {
-                roomWithCount.setLastMessage(lastMessage.get());
-            }
-            
-            // Count unread messages
-            int unreadCount = messageRepository.countUnreadMessagesForUser(chatRoom, user);
-            roomWithCount.setUnreadCount(unreadCount);
-            
-            return roomWithCount;
-        }).collect(Collectors.toList());
+
+        // Rooms with last message and unread count in one statement, members for the page in a second
+        List<ChatRoomSummary> summaries = chatRoomRepository.findChatRoomSummaries(user.getId(), pageable);
+        if (summaries.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> chatRoomIds = summaries.stream().map(ChatRoomSummary::getId).collect(Collectors.toList());
+        Map<Long, List<UserDto>> membersByRoom = new HashMap<>();
+        for (ChatRoomMemberSummary row : chatRoomRepository.findMemberSummaries(chatRoomIds)) {
+            membersByRoom.computeIfAbsent(row.getChatRoomId(), id -> new ArrayList<>())
+                    .add(new UserDto(row.getId(), row.getUsername(), row.getIsOnline(), row.getLastSeen()));
+        }
+
+        return summaries.stream()
+                .map(summary -> ChatRoomDto.of(summary, membersByRoom.getOrDefault(summary.getId(), List.of())))
+                .collect(Collectors.toList());
     }
 
     public ChatRoom createChatRoom(ChatRoomRequest request, String creatorUsername) {
@@ -101,6 +124,15 @@ public class ChatRoomService {
         }
 
         ChatRoom savedChatRoom = chatRoomRepository.save(chatRoom);
+        // Warm the membership index before members are told to subscribe
+        membershipCache.putRoom(savedChatRoom.getId(), savedChatRoom.getMembers().stream()
+                .map(User::getId)
+                .collect(Collectors.toList()));
+
+        // Start every member's read watermark at the beginning of the room
+        readStateRepository.saveAll(savedChatRoom.getMembers().stream()
+                .map(member -> new ChatRoomReadState(savedChatRoom.getId(), member.getId(), 0L))
+                .collect(Collectors.toList()));
         
         // Notify all members about the new chat room
         notifyMembersAboutNewChatRoom(savedChatRoom);
@@ -118,6 +150,10 @@ public class ChatRoomService {
         if (!chatRoom.getMembers().contains(user)) {
             chatRoom.getMembers().add(user);
             chatRoomRepository.save(chatRoom);
+            membershipCache.addMember(chatRoomId, user.getId());
+
+            // History from before joining doesn't count as unread
+            readStateRepository.save(new ChatRoomReadState(chatRoomId, user.getId(), chatRoom.getLastMessageSeq()));
             
             // Create system message for join
             createSystemMessage(chatRoom, user, user.getUsername() + " joined the chat", Message.MessageType.JOIN);
@@ -134,6 +170,8 @@ public class ChatRoomService {
         if (chatRoom.getMembers().contains(user)) {
             chatRoom.getMembers().remove(user);
             chatRoomRepository.save(chatRoom);
+            membershipCache.removeMember(chatRoomId, user.getId());
+            readStateRepository.deleteById(new ChatRoomReadStateId(chatRoomId, user.getId()));
             
             // Create system message for leave
             createSystemMessage(chatRoom, user, user.getUsername() + " left the chat", Message.MessageType.LEAVE);
@@ -146,7 +184,7 @@ public class ChatRoomService {
         systemMessage.setSender(user);
         systemMessage.setChatRoom(chatRoom);
         systemMessage.setType(type);
-        messageRepository.save(systemMessage);
+        recentMessages.appendPersisted(MessageDto.of(messageService.saveMessage(systemMessage)));
     }
 
     public void deleteChatForUser(Long chatRoomId, String username) {
@@ -159,49 +197,33 @@ public class ChatRoomService {
         // Remove user from chat room members
         if (chatRoom.getMembers().contains(user)) {
             chatRoom.getMembers().remove(user);
+            readStateRepository.deleteById(new ChatRoomReadStateId(chatRoomId, user.getId()));
             
             // If no members left, delete the entire chat room
             if (chatRoom.getMembers().isEmpty()) {
                 chatRoomRepository.delete(chatRoom);
+                membershipCache.removeRoom(chatRoomId);
+                recentMessages.removeRoom(chatRoomId);
             } else {
                 chatRoomRepository.save(chatRoom);
+                membershipCache.removeMember(chatRoomId, user.getId());
             }
         }
     }
 
     private void notifyMembersAboutNewChatRoom(ChatRoom chatRoom) {
-        // Create notification object with member information
-        var notification = new Object() {
-            public final ChatRoom room = chatRoom;
-            public final java.util.List<String> memberUsernames = chatRoom.getMembers()
-                .stream()
-                .map(User::getUsername)
-                .collect(java.util.stream.Collectors.toList());
-        };
-        
-        System.out.println("Broadcasting new chat room to all users: " + chatRoom.getName());
-        System.out.println("Members: " + notification.memberUsernames);
-        
-        // Broadcast to all users, let frontend filter
-        messagingTemplate.convertAndSend("/topic/chatroom-created", notification);
-    }
+        // Deliver only to members' own sessions instead of every connected client
+        ChatRoomCreatedEvent event = ChatRoomCreatedEvent.of(chatRoom);
+        for (User member : chatRoom.getMembers()) {
+            messagingTemplate.convertAndSendToUser(member.getUsername(), "/queue/chatroom-created", event);
+        }
 
-    public void broadcastTypingIndicator(Long chatRoomId, String username, Boolean isTyping) {
-        ChatRoom chatRoom = chatRoomRepository.findById(chatRoomId)
-                .orElseThrow(() -> new RuntimeException("Chat room not found"));
-        
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        // Create typing indicator object
-        var typingIndicator = new Object() {
-            public final Long userId = user.getId();
-            public final String username = user.getUsername();
-            public final Boolean typing = isTyping;
-            public final Long chatRoomId = chatRoom.getId();
-        };
-        
-        // Broadcast to all users in the chat room
-        messagingTemplate.convertAndSend("/topic/chatroom/" + chatRoomId + "/typing", typingIndicator);
+        // A topic broadcast cost one frame per connected user; count the ones no longer sent
+        int connectedUsers = userRegistry.getUserCount();
+        long connectedMembers = chatRoom.getMembers().stream()
+                .filter(member -> userRegistry.getUser(member.getUsername()) != null)
+                .count();
+        meterRegistry.counter("chatapp.websocket.chatroom-created.frames-saved")
+                .increment(Math.max(0, connectedUsers - connectedMembers));
     }
-}
\ No newline at end of file
+}
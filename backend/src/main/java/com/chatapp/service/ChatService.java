@@ -1,24 +1,24 @@
 package com.chatapp.service;
 
+import com.chatapp.dto.MessageDto;
 import com.chatapp.dto.MessageRequest;
 import com.chatapp.model.ChatRoom;
 import com.chatapp.model.Message;
 import com.chatapp.model.User;
 import com.chatapp.repository.ChatRoomRepository;
-import com.chatapp.repository.MessageRepository;
 import com.chatapp.repository.UserRepository;
+import com.chatapp.security.CustomUserDetailsService;
+import com.chatapp.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
 
 @Service
 public class ChatService {
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
-
-    @Autowired
-    private MessageRepository messageRepository;
+    private BroadcastPublisher broadcastPublisher;
 
     @Autowired
     private UserRepository userRepository;
@@ -26,7 +26,33 @@ public class ChatService {
     @Autowired
     private ChatRoomRepository chatRoomRepository;
 
+    @Autowired
+    private MessageWriteBehind messageWriteBehind;
+
+    @Autowired
+    private MessageIdAllocator messageIdAllocator;
+
+    @Autowired
+    private RoomSequenceAllocator roomSequenceAllocator;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private RecentMessageCache recentMessages;
+
+    @Autowired
+    private MessageService messageService;
+
     public void sendMessage(MessageRequest messageRequest, String username) {
+        if (messageWriteBehind.isEnabled()) {
+            sendMessageWriteBehind(messageRequest, username);
+            return;
+        }
+
         User sender = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -34,12 +60,49 @@ public class ChatService {
                 .orElseThrow(() -> new RuntimeException("Chat room not found"));
 
         Message message = new Message(messageRequest.getContent(), sender, chatRoom);
-        message.setType(Message.MessageType.valueOf(messageRequest.getType()));
-        
-        Message savedMessage = messageRepository.save(message);
+        message.setType(MessageService.parseType(messageRequest.getType()));
+        Message savedMessage = messageService.saveMessage(message);
+        MessageDto dto = MessageDto.of(savedMessage);
+        recentMessages.appendPersisted(dto);
+
+        // Send to chat room topic, encoded once for all subscribers
+        broadcastPublisher.publish("/topic/chatroom/" + chatRoom.getId(), dto);
+    }
+
+    // Id, room sequence and timestamp are assigned here and the message is broadcast once queued; the
+    // sender comes from the principal cache and the room is referenced by id, so the only statement on
+    // this thread is the single-row UPDATE that claims the seq and points the room at the message
+    private void sendMessageWriteBehind(MessageRequest messageRequest, String username) {
+        UserPrincipal sender = userDetailsService.loadCachedPrincipal(username);
+        Message.MessageType type = MessageService.parseType(messageRequest.getType());
+        MessageService.validate(messageRequest.getContent(), type);
+        long id = messageIdAllocator.nextId();
+        LocalDateTime sentAt = LocalDateTime.now();
+        MessageWriteBehind.PendingMessage message = new MessageWriteBehind.PendingMessage(
+                id,
+                roomSequenceAllocator.claim(messageRequest.getChatRoomId(), id, sentAt,
+                        ChatRoom.previewOf(messageRequest.getContent())),
+                messageRequest.getContent(),
+                type,
+                sentAt,
+                messageRequest.getChatRoomId(),
+                sender.getId(),
+                username);
+
+        if (!messageWriteBehind.enqueue(message)) {
+            var error = new Object() {
+                public final String errorType = "SERVER_BUSY";
+                public final Long chatRoomId = message.chatRoomId();
+            };
+            messagingTemplate.convertAndSendToUser(username, "/queue/errors", error);
+            return;
+        }
 
-        // Send to chat room topic
-        messagingTemplate.convertAndSend("/topic/chatroom/" + chatRoom.getId(), savedMessage);
+        // Cached as soon as it is queued, like the broadcast; MessageWriteBehind removes it if the insert fails
+        // and tells other nodes once it commits
+        MessageDto dto = message.dto();
+        recentMessages.append(dto);
+        broadcastPublisher.publish("/topic/chatroom/" + message.chatRoomId(), dto);
     }
 
     public void addUser(MessageRequest messageRequest, String username) {
@@ -51,10 +114,11 @@ public class ChatService {
 
         Message joinMessage = new Message(username + " joined the chat", user, chatRoom);
         joinMessage.setType(Message.MessageType.JOIN);
-        
-        Message savedMessage = messageRepository.save(joinMessage);
+        Message savedMessage = messageService.saveMessage(joinMessage);
+        MessageDto dto = MessageDto.of(savedMessage);
+        recentMessages.appendPersisted(dto);
 
         // Send join notification
-        messagingTemplate.convertAndSend("/topic/chatroom/" + chatRoom.getId(), savedMessage);
+        broadcastPublisher.publish("/topic/chatroom/" + chatRoom.getId(), dto);
     }
 }
\ No newline at end of file
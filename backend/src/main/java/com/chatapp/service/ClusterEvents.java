@@ -0,0 +1,121 @@
+package com.chatapp.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.BrokerAvailabilityEvent;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.MimeTypeUtils;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+
+// Per-room invalidations between the nodes of a relay cluster, for state each node keeps in memory.
+// A node publishes "<node> <event> <room id>" to /topic/internal/rooms on the shared broker and receives
+// every node's events on the relay's system session, skipping its own. Events can be lost while a node
+// is cut off from the broker, so listeners are also told to drop everything when the broker comes back.
+// In simple broker mode there is only one node and publish() does nothing.
+@Component
+public class ClusterEvents implements SmartInitializingSingleton {
+
+    static final String DESTINATION = "/topic/internal/rooms";
+
+    @Autowired
+    private ObjectProvider<StompBrokerRelayMessageHandler> relayHandler;
+
+    @Autowired
+    private ObjectProvider<SimpMessagingTemplate> messagingTemplate;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, LongConsumer> listeners = new ConcurrentHashMap<>();
+    private final List<Runnable> resetListeners = new CopyOnWriteArrayList<>();
+    private volatile boolean relay;
+
+    // Runs before the relay connects, which is when its system subscriptions are sent
+    @Override
+    public void afterSingletonsInstantiated() {
+        StompBrokerRelayMessageHandler handler = relayHandler.getIfAvailable();
+        if (handler != null) {
+            handler.getSystemSubscriptions().put(DESTINATION, this::receive);
+            relay = true;
+        }
+    }
+
+    // `listener` is called with the room id of each event of this kind from another node; `reset` when
+    // events may have been missed
+    public void subscribe(String event, LongConsumer listener, Runnable reset) {
+        listeners.put(event, listener);
+        resetListeners.add(reset);
+    }
+
+    public boolean isClustered() {
+        return relay;
+    }
+
+    // Inside a transaction the event is sent after commit, so other nodes cannot reload the old state
+    public void publish(String event, long chatRoomId) {
+        if (!relay) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(event, chatRoomId);
+                }
+            });
+        } else {
+            send(event, chatRoomId);
+        }
+    }
+
+    private void send(String event, long chatRoomId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.TEXT_PLAIN);
+        byte[] payload = (nodeId + " " + event + " " + chatRoomId).getBytes(StandardCharsets.UTF_8);
+        try {
+            messagingTemplate.getObject().send(DESTINATION, MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+        } catch (RuntimeException e) {
+            // Broker unreachable; the other nodes reset when it is back
+            System.err.println("Cluster event " + event + " for room " + chatRoomId + " not sent: " + e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onBrokerAvailability(BrokerAvailabilityEvent event) {
+        if (relay && event.isBrokerAvailable()) {
+            resetListeners.forEach(Runnable::run);
+        }
+    }
+
+    private void receive(Message<?> message) {
+        if (!(message.getPayload() instanceof byte[] bytes)) {
+            return;
+        }
+        String[] parts = new String(bytes, StandardCharsets.UTF_8).split(" ");
+        if (parts.length != 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        LongConsumer listener = listeners.get(parts[1]);
+        if (listener != null) {
+            try {
+                listener.accept(Long.parseLong(parts[2]));
+            } catch (NumberFormatException e) {
+                System.err.println("Ignoring malformed cluster event: " + parts[2]);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.chatapp.service;
+
+import com.chatapp.model.ChatRoom;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Finds rooms whose last-message pointer differs from their highest-seq message and repoints them. Sends
+// set the pointer when they claim a seq, so this only catches write-behind messages that were never
+// persisted and rows written outside the app. With write-behind the pointer leads the insert, so rooms
+// whose pointer moved within settle-ms are left alone, and a repair only applies if the pointer still
+// holds the value found stale: it cannot undo a concurrent send.
+@Component
+public class LastMessageRepair {
+
+    private static final String DRIFTED_ROOMS_SQL = """
+            SELECT cr.id, cr.last_message_id FROM chat_rooms cr
+            WHERE (cr.last_message_at IS NULL OR cr.last_message_at < ?)
+              AND COALESCE(cr.last_message_id, 0) <> COALESCE((
+                SELECT m.id FROM messages m
+                WHERE m.chat_room_id = cr.id
+                  AND m.room_seq = (SELECT MAX(n.room_seq) FROM messages n WHERE n.chat_room_id = cr.id)), 0)
+            """;
+
+    private static final String NEWEST_MESSAGE_SQL =
+            "SELECT id, created_at, content FROM messages WHERE chat_room_id = ? ORDER BY room_seq DESC LIMIT 1";
+
+    private static final String REPOINT_SQL =
+            "UPDATE chat_rooms SET last_message_id = ?, last_message_at = ?, last_message_preview = ? " +
+            "WHERE id = ? AND last_message_id IS NOT DISTINCT FROM ?";
+
+    @Value("${chatapp.last-message.settle-ms:60000}")
+    private long settleMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter repairs;
+
+    @PostConstruct
+    void init() {
+        repairs = meterRegistry.counter("chatapp.last-message.repairs");
+    }
+
+    @Scheduled(fixedDelayString = "${chatapp.last-message.repair-interval-ms:3600000}",
+               initialDelayString = "${chatapp.last-message.repair-interval-ms:3600000}")
+    public int repairDrift() {
+        Timestamp settled = Timestamp.valueOf(LocalDateTime.now().minusNanos(settleMs * 1_000_000L));
+        List<Map<String, Object>> drifted = jdbcTemplate.queryForList(DRIFTED_ROOMS_SQL, settled);
+        int repaired = 0;
+        for (Map<String, Object> room : drifted) {
+            Object pointer = room.get("last_message_id");
+            if (repoint(((Number) room.get("id")).longValue(), pointer != null ? ((Number) pointer).longValue() : null)) {
+                repaired++;
+            }
+        }
+        if (repaired > 0) {
+            System.err.println("Repaired last-message pointer of " + repaired + " chat room(s)");
+        }
+        return repaired;
+    }
+
+    // Points the room at its highest-seq message, or at nothing, if it still points at stalePointer
+    public boolean repoint(Long chatRoomId, Long stalePointer) {
+        List<Object[]> newest = jdbcTemplate.query(NEWEST_MESSAGE_SQL, (rs, rowNum) -> new Object[]{
+                rs.getLong("id"), rs.getTimestamp("created_at"), ChatRoom.previewOf(rs.getString("content"))},
+                chatRoomId);
+        Object[] pointer = newest.isEmpty() ? new Object[]{null, null, null} : newest.get(0);
+        boolean updated = jdbcTemplate.update(REPOINT_SQL, pointer[0], pointer[1], pointer[2], chatRoomId, stalePointer) > 0;
+        if (updated) {
+            repairs.increment();
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,59 @@
+package com.chatapp.service;
+
+import com.chatapp.model.Message;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// Hands out message ids in-process from the same pooled sequence Hibernate uses for Message.
+// Each nextval reserves the block (value - allocationSize, value], matching Hibernate's pooled optimizer,
+// so ids assigned here never collide with ids Hibernate assigns.
+@Component
+public class MessageIdAllocator {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private String nextValueSql;
+    private long next;
+    private long upperBound;
+
+    @PostConstruct
+    void init() {
+        nextValueSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport()
+                .getSequenceNextValString(Message.ID_SEQUENCE);
+    }
+
+    public long nextId() {
+        // A lock rather than synchronized: the refill does JDBC I/O, which would pin a virtual thread's carrier
+        lock.lock();
+        try {
+            if (next > upperBound || upperBound == 0) {
+                long value = fetchNextValue();
+                // The sequence's first value(s) would give a block below 1; skip to a full block
+                while (value < Message.ID_ALLOCATION_SIZE) {
+                    value = fetchNextValue();
+                }
+                upperBound = value;
+                next = value - Message.ID_ALLOCATION_SIZE + 1;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long fetchNextValue() {
+        return jdbcTemplate.queryForObject(nextValueSql, Long.class);
+    }
+}
@@ -0,0 +1,161 @@
+package com.chatapp.service;
+
+import com.chatapp.dto.MessageDto;
+import com.chatapp.dto.MessageSearchHit;
+import com.chatapp.security.CustomUserDetailsService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Message search over the rooms the caller belongs to, newest first, paged with a "before" message id.
+// On PostgreSQL it matches messages.content_tsv (trigger-maintained column + GIN index, see V5) against
+// websearch_to_tsquery and builds snippets with ts_headline. Other databases (H2 in tests) fall back to a
+// case-insensitive LIKE per term, which scans but returns the same shape.
+@Service
+public class MessageSearchService {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 50;
+    public static final int MAX_QUERY_LENGTH = 200;
+
+    // Private-use characters around matches; the snippet is HTML-escaped before they become <mark> tags
+    private static final char START_MARK = '\uE000';
+    private static final char STOP_MARK = '\uE001';
+    private static final String HEADLINE_OPTIONS =
+            "StartSel=" + START_MARK + ", StopSel=" + STOP_MARK + ", MaxWords=25, MinWords=8, MaxFragments=2";
+
+    private static final String SELECT_PREFIX =
+            "SELECT m.id, m.room_seq, m.content, m.type, m.created_at, m.chat_room_id, u.id AS sender_id, u.username";
+
+    private static final String SCOPE =
+            " AND m.chat_room_id IN (SELECT crm.chat_room_id FROM chat_room_members crm WHERE crm.user_id = ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    private boolean fullText;
+
+    @PostConstruct
+    void init() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        fullText = "PostgreSQL".equals(database);
+    }
+
+    public List<MessageSearchHit> search(String query, Long chatRoomId, Long before, Integer limit, String username) {
+        String text = query == null ? "" : query.strip();
+        if (text.length() > MAX_QUERY_LENGTH) {
+            text = text.substring(0, MAX_QUERY_LENGTH);
+        }
+        List<String> terms = Arrays.stream(text.toLowerCase(Locale.ROOT).split("\\s+"))
+                .filter(term -> !term.isEmpty())
+                .toList();
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        Long userId = userDetailsService.loadCachedPrincipal(username).getId();
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_PREFIX);
+        if (fullText) {
+            sql.append(", ts_headline('simple', m.content, q, ?) AS highlight")
+               .append(" FROM messages m JOIN users u ON u.id = m.sender_id")
+               .append(" CROSS JOIN websearch_to_tsquery('simple', ?) q")
+               .append(" WHERE m.content_tsv @@ q");
+            args.add(HEADLINE_OPTIONS);
+            args.add(text);
+        } else {
+            sql.append(", NULL AS highlight FROM messages m JOIN users u ON u.id = m.sender_id WHERE 1 = 1");
+            for (String term : terms) {
+                sql.append(" AND LOWER(m.content) LIKE ? ESCAPE '\\'");
+                args.add("%" + term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+            }
+        }
+        sql.append(SCOPE);
+        args.add(userId);
+        if (chatRoomId != null) {
+            sql.append(" AND m.chat_room_id = ?");
+            args.add(chatRoomId);
+        }
+        if (before != null) {
+            sql.append(" AND (m.created_at, m.id) < (SELECT b.created_at, b.id FROM messages b WHERE b.id = ?)");
+            args.add(before);
+        }
+        sql.append(" ORDER BY m.created_at DESC, m.id DESC LIMIT ?");
+        args.add(pageSize);
+
+        return jdbcTemplate.query(sql.toString(), hitMapper(terms), args.toArray());
+    }
+
+    private RowMapper<MessageSearchHit> hitMapper(List<String> terms) {
+        return (rs, rowNum) -> {
+            String content = rs.getString("content");
+            String highlight = rs.getString("highlight");
+            MessageDto message = new MessageDto(
+                    rs.getLong("id"),
+                    rs.getObject("room_seq", Long.class),
+                    content,
+                    rs.getString("type"),
+                    rs.getTimestamp("created_at").toLocalDateTime(),
+                    rs.getLong("chat_room_id"),
+                    new MessageDto.Sender(rs.getLong("sender_id"), rs.getString("username")));
+            return new MessageSearchHit(message, toHtml(highlight != null ? highlight : markTerms(content, terms)));
+        };
+    }
+
+    // Fallback highlighting: wraps every case-insensitive occurrence of a term in the markers
+    static String markTerms(String content, List<String> terms) {
+        String lower = content.toLowerCase(Locale.ROOT);
+        if (lower.length() != content.length()) {
+            // Lower-casing changed the length (a few non-Latin letters); offsets wouldn't line up
+            return content;
+        }
+        boolean[] marked = new boolean[content.length()];
+        for (String term : terms) {
+            for (int at = lower.indexOf(term); at >= 0; at = lower.indexOf(term, at + term.length())) {
+                Arrays.fill(marked, at, at + term.length(), true);
+            }
+        }
+        StringBuilder result = new StringBuilder(content.length() + 16);
+        for (int i = 0; i < content.length(); i++) {
+            if (marked[i] && (i == 0 || !marked[i - 1])) {
+                result.append(START_MARK);
+            }
+            result.append(content.charAt(i));
+            if (marked[i] && (i == content.length() - 1 || !marked[i + 1])) {
+                result.append(STOP_MARK);
+            }
+        }
+        return result.toString();
+    }
+
+    // Message text is user input: escape it, then turn the markers into tags
+    static String toHtml(String marked) {
+        StringBuilder html = new StringBuilder(marked.length() + 16);
+        for (int i = 0; i < marked.length(); i++) {
+            char c = marked.charAt(i);
+            switch (c) {
+                case START_MARK -> html.append("<mark>");
+                case STOP_MARK -> html.append("</mark>");
+                case '&' -> html.append("&amp;");
+                case '<' -> html.append("&lt;");
+                case '>' -> html.append("&gt;");
+                case '"' -> html.append("&quot;");
+                case '\'' -> html.append("&#39;");
+                default -> html.append(c);
+            }
+        }
+        return html.toString();
+    }
+}
@@ -1,17 +1,29 @@
 package com.chatapp.service;
 
+import com.chatapp.dto.ChatRoomReadProgress;
+import com.chatapp.dto.MessageDto;
+import com.chatapp.dto.RoomResync;
 import com.chatapp.model.ChatRoom;
 import com.chatapp.model.Message;
-import com.chatapp.model.User;
+import com.chatapp.repository.ChatRoomReadStateRepository;
 import com.chatapp.repository.ChatRoomRepository;
 import com.chatapp.repository.MessageRepository;
-import com.chatapp.repository.UserRepository;
+import com.chatapp.security.CustomUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class MessageService {
@@ -23,23 +35,189 @@ public class MessageService {
     private ChatRoomRepository chatRoomRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private ChatRoomReadStateRepository readStateRepository;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private ReadWatermarkWriter readWatermarkWriter;
 
-    public List<Message> getChatRoomMessages(Long chatRoomId) {
-        ChatRoom chatRoom = chatRoomRepository.findById(chatRoomId)
-                .orElseThrow(() -> new RuntimeException("Chat room not found"));
-        
-        return messageRepository.findByChatRoomOrderByCreatedAtAsc(chatRoom);
+    @Autowired
+    private ReadStatusBroadcaster readStatusBroadcaster;
+
+    @Autowired
+    private RoomMembershipCache membershipCache;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private RecentMessageCache recentMessages;
+
+    @Autowired
+    private RoomSequenceAllocator roomSequenceAllocator;
+
+    @Autowired
+    private MessageWriteBehind messageWriteBehind;
+
+    @Autowired
+    private MessageIdAllocator messageIdAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // How long a missing room seq may still be waiting in some node's write-behind queue
+    @Value("${chatapp.messages.write-behind.gap-timeout-ms:30000}")
+    private long gapTimeoutMs;
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int MAX_RESYNC_ROOMS = 200;
+
+    // Claims the room sequence and points the room at the message in one UPDATE, then inserts the row, in
+    // one transaction. The UPDATE locks the room row, so a room's inserts commit in seq order. The id is
+    // needed before the insert, so it comes from MessageIdAllocator and the row is written with JDBC,
+    // like write-behind batches; the returned message is not attached to the persistence context.
+    @Transactional
+    public Message saveMessage(Message message) {
+        validate(message.getContent(), message.getType());
+        LocalDateTime now = LocalDateTime.now();
+        message.setId(messageIdAllocator.nextId());
+        message.setCreatedAt(now);
+        message.setDeliveredAt(now);
+        message.setIsDelivered(true);
+        message.setRoomSeq(roomSequenceAllocator.claim(message.getChatRoom().getId(), message.getId(), now,
+                ChatRoom.previewOf(message.getContent())));
+        Timestamp createdAt = Timestamp.valueOf(now);
+        jdbcTemplate.update(MessageWriteBehind.INSERT_SQL, message.getId(), message.getContent(), createdAt,
+                createdAt, true, message.getSender().getId(), message.getChatRoom().getId(),
+                message.getType().name(), message.getRoomSeq());
+        return message;
+    }
+
+    // What @NotBlank and the NOT NULL columns would reject, checked before a seq is claimed so that a
+    // refused message leaves no gap in the room sequence
+    static void validate(String content, Message.MessageType type) {
+        if (content == null || content.isBlank()) {
+            throw new RuntimeException("Message content must not be blank");
+        }
+        if (type == null) {
+            throw new RuntimeException("Message type is required");
+        }
+    }
+
+    static Message.MessageType parseType(String type) {
+        try {
+            return Message.MessageType.valueOf(type);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new RuntimeException("Invalid message type");
+        }
+    }
+
+    // Returns one page of history in ascending order. Without a cursor this is the latest page, served
+    // from RecentMessageCache when the room is warm; "before" walks back from a message, "after" walks
+    // forward from one.
+    public List<MessageDto> getChatRoomMessages(Long chatRoomId, Long before, Long after, Integer limit, String username) {
+        Long viewerId = userDetailsService.loadCachedPrincipal(username).getId();
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<MessageDto> messages = before == null && after == null
+                ? latestPage(chatRoomId, pageSize)
+                : loadPage(chatRoomId, before, after, pageSize).stream().map(MessageDto::of).toList();
+        return applyReadState(chatRoomId, viewerId, messages);
+    }
+
+    private List<MessageDto> latestPage(Long chatRoomId, int pageSize) {
+        List<MessageDto> cached = recentMessages.latest(chatRoomId, pageSize);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Cold room: read a full buffer's worth so the next open is a hit even with a smaller page
+        long loadedAt = recentMessages.generation();
+        int loadSize = Math.max(pageSize, recentMessages.perRoom());
+        List<MessageDto> loaded = loadPage(chatRoomId, null, null, loadSize).stream().map(MessageDto::of).toList();
+        recentMessages.seed(chatRoomId, loaded, loaded.size() < loadSize, loadedAt);
+        return loaded.subList(Math.max(0, loaded.size() - pageSize), loaded.size());
+    }
+
+    private List<Message> loadPage(Long chatRoomId, Long before, Long after, int pageSize) {
+        Pageable page = PageRequest.of(0, pageSize);
+
+        if (after != null) {
+            LocalDateTime cursorTime = findCursorTime(chatRoomId, after);
+            return messageRepository.findAfterCursor(chatRoomId, cursorTime, after, page);
+        }
+
+        List<Message> messages;
+        if (before != null) {
+            LocalDateTime cursorTime = findCursorTime(chatRoomId, before);
+            messages = messageRepository.findBeforeCursor(chatRoomId, cursorTime, before, page);
+        } else {
+            messages = messageRepository.findLatestByChatRoomId(chatRoomId, page);
+        }
+
+        List<Message> ascending = new ArrayList<>(messages);
+        Collections.reverse(ascending);
+        return ascending;
+    }
+
+    private LocalDateTime findCursorTime(Long chatRoomId, Long messageId) {
+        return messageRepository.findCreatedAtByIdAndChatRoomId(messageId, chatRoomId)
+                .orElseThrow(() -> new RuntimeException("Message not found"));
+    }
+
+    // After a reconnect: for each room, what was sent after the client's last seen sequence. Rooms the
+    // user isn't a member of, and rooms past MAX_RESYNC_ROOMS, are left out of the result.
+    public List<RoomResync> resync(Map<Long, Long> afterSeqByRoom, Integer limit, String username) {
+        Long userId = userDetailsService.loadCachedPrincipal(username).getId();
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Pageable page = PageRequest.of(0, pageSize + 1);
+
+        List<RoomResync> result = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : afterSeqByRoom.entrySet()) {
+            if (result.size() == MAX_RESYNC_ROOMS) {
+                break;
+            }
+            Long chatRoomId = entry.getKey();
+            if (chatRoomId == null || !membershipCache.isMember(chatRoomId, userId)) {
+                continue;
+            }
+            long afterSeq = entry.getValue() != null ? entry.getValue() : 0L;
+            List<Message> missed = messageRepository.findAfterSeq(chatRoomId, afterSeq, page);
+            result.add(contiguousRun(chatRoomId, afterSeq, missed, pageSize));
+        }
+        return result;
+    }
+
+    // Only the run of seqs directly after the client's cursor. With write-behind a seq is taken before its
+    // insert, so a later one can be in the database first; stopping at such a gap (incomplete, the client
+    // reloads the room) keeps the client from moving its cursor past a message still being written. A gap
+    // older than gap-timeout-ms, or any gap without write-behind, is a message that will never exist.
+    private RoomResync contiguousRun(Long chatRoomId, long afterSeq, List<Message> missed, int pageSize) {
+        LocalDateTime settledBefore = LocalDateTime.now().minusNanos(gapTimeoutMs * 1_000_000L);
+        List<MessageDto> run = new ArrayList<>();
+        long expected = afterSeq + 1;
+        for (Message message : missed.subList(0, Math.min(pageSize, missed.size()))) {
+            if (message.getRoomSeq() != expected && messageWriteBehind.isEnabled()
+                    && message.getCreatedAt().isAfter(settledBefore)) {
+                return new RoomResync(chatRoomId, run, false);
+            }
+            run.add(MessageDto.of(message));
+            expected = message.getRoomSeq() + 1;
+        }
+        return new RoomResync(chatRoomId, run, missed.size() <= pageSize);
     }
 
-    public Message getLastMessage(Long chatRoomId) {
+    public MessageDto getLastMessage(Long chatRoomId) {
+        List<MessageDto> cached = recentMessages.latest(chatRoomId, 1);
+        if (cached != null) {
+            return cached.isEmpty() ? null : cached.get(0);
+        }
+
         ChatRoom chatRoom = chatRoomRepository.findById(chatRoomId)
                 .orElseThrow(() -> new RuntimeException("Chat room not found"));
-        
-        return messageRepository.findTopByChatRoomOrderByCreatedAtDesc(chatRoom).orElse(null);
+        if (chatRoom.getLastMessageId() == null) {
+            return null;
+        }
+        return messageRepository.findWithSenderById(chatRoom.getLastMessageId()).map(MessageDto::of).orElse(null);
     }
 
     @Transactional
@@ -47,28 +225,57 @@ public class MessageService {
         Message message = messageRepository.findById(messageId)
                 .orElseThrow(() -> new RuntimeException("Message not found"));
         
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        // Only mark as read if the user is not the sender
-        if (!message.getSender().getId().equals(user.getId())) {
-            message.setIsRead(true);
-            message.setReadAt(LocalDateTime.now());
-            Message savedMessage = messageRepository.save(message);
-            
-            // Broadcast read status to the chat room
-            broadcastMessageStatus(savedMessage, "READ");
+        Long userId = userDetailsService.loadCachedPrincipal(username).getId();
+        advanceAndBroadcast(message.getChatRoom().getId(), userId, message.getRoomSeq());
+    }
+
+    @Transactional
+    public void markReadUpTo(Long chatRoomId, Long upToSeq, String username) {
+        Long userId = userDetailsService.loadCachedPrincipal(username).getId();
+        advanceAndBroadcast(chatRoomId, userId, upToSeq);
+    }
+
+    private void advanceAndBroadcast(Long chatRoomId, Long userId, Long upToSeq) {
+        if (!membershipCache.isMember(chatRoomId, userId)) {
+            throw new RuntimeException("Not a member of this chat room");
+        }
+        // A watermark past the room's newest seq would mark messages not yet sent as read
+        long lastSeq = chatRoomRepository.findLastMessageSeq(chatRoomId).orElse(0L);
+        long seq = Math.min(upToSeq != null ? upToSeq : 0L, lastSeq);
+        if (seq <= 0) {
+            return;
+        }
+
+        // One watermark write covers this message and every earlier one in the room
+        LocalDateTime readAt = LocalDateTime.now();
+        if (readWatermarkWriter.advance(chatRoomId, userId, seq, readAt)) {
+            // Coalesced into at most one status frame per room per flush interval, once the watermark is committed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    readStatusBroadcaster.watermarkAdvanced(chatRoomId, userId, seq, readAt);
+                }
+            });
         }
     }
 
-    private void broadcastMessageStatus(Message message, String status) {
-        var statusUpdate = new Object() {
-            public final Long messageId = message.getId();
-            public final String statusType = status;
-            public final String readAt = message.getReadAt() != null ? message.getReadAt().toString() : null;
-            public final Long chatRoomId = message.getChatRoom().getId();
-        };
-        
-        messagingTemplate.convertAndSend("/topic/chatroom/" + message.getChatRoom().getId() + "/status", statusUpdate);
+    // Read state as seen by the viewer: other people's messages are read once the viewer's watermark passes
+    // them, the viewer's own messages once any other member's watermark does
+    private List<MessageDto> applyReadState(Long chatRoomId, Long viewerId, List<MessageDto> messages) {
+        ChatRoomReadProgress progress = readStateRepository.findReadProgress(chatRoomId, viewerId);
+        long ownWatermark = progress != null && progress.getOwnReadSeq() != null ? progress.getOwnReadSeq() : 0L;
+        long othersWatermark = progress != null && progress.getOthersReadSeq() != null ? progress.getOthersReadSeq() : 0L;
+
+        List<MessageDto> result = new ArrayList<>(messages.size());
+        for (MessageDto message : messages) {
+            boolean ownMessage = message.sender().id().equals(viewerId);
+            long seq = message.seq() != null ? message.seq() : Long.MAX_VALUE;
+            if (ownMessage && seq <= othersWatermark) {
+                result.add(message.withReadState(true, progress.getOthersReadAt()));
+            } else {
+                result.add(message.withReadState(!ownMessage && seq <= ownWatermark, null));
+            }
+        }
+        return result;
     }
-}
\ No newline at end of file
+}
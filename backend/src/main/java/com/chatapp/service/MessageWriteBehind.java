@@ -0,0 +1,236 @@
+package com.chatapp.service;
+
+import com.chatapp.dto.MessageDto;
+import com.chatapp.model.Message;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Bounded write-behind queue for chat messages (chatapp.messages.write-behind.enabled). Messages are
+// broadcast as soon as they are enqueued; a single writer thread persists them with JDBC batch inserts.
+// Senders block for at most offer-timeout-ms when the queue is full, then the message is refused.
+// Ids come from an in-process block, but the room seq still costs one UPDATE round trip per send
+// (RoomSequenceAllocator), since every node draws from the same per-room counter. That seq is committed
+// before the insert, so a message that fails to persist leaves a gap; resync skips it after gap-timeout-ms.
+@Component
+public class MessageWriteBehind {
+
+    // Also used by MessageService.saveMessage
+    static final String INSERT_SQL =
+            "INSERT INTO messages (id, content, created_at, delivered_at, is_delivered, sender_id, chat_room_id, type, room_seq) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Value("${chatapp.messages.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chatapp.messages.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${chatapp.messages.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${chatapp.messages.write-behind.offer-timeout-ms:100}")
+    private long offerTimeoutMs;
+
+    @Value("${chatapp.messages.write-behind.max-attempts:3}")
+    private int maxAttempts;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RecentMessageCache recentMessages;
+
+    @Autowired
+    private LastMessageRepair lastMessageRepair;
+
+    private BlockingQueue<PendingMessage> queue;
+    private Thread writer;
+    private volatile boolean running;
+    // Enqueuers hold the read lock across the running check and the offer, so once shutdown() holds the
+    // write lock nothing more can land in the queue after its final drain
+    private final ReentrantReadWriteLock accepting = new ReentrantReadWriteLock();
+
+    private Counter persisted;
+    private Counter failed;
+    private Counter rejected;
+
+    public record PendingMessage(Long id, Long roomSeq, String content, Message.MessageType type, LocalDateTime createdAt,
+                                 Long chatRoomId, Long senderId, String senderUsername) {
+
+        public MessageDto dto() {
+            return new MessageDto(id, roomSeq, content, type.name(), createdAt, chatRoomId,
+                    new MessageDto.Sender(senderId, senderUsername));
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        persisted = meterRegistry.counter("chatapp.messages.write-behind", "result", "persisted");
+        failed = meterRegistry.counter("chatapp.messages.write-behind", "result", "failed");
+        rejected = meterRegistry.counter("chatapp.messages.write-behind", "result", "rejected");
+        Gauge.builder("chatapp.messages.write-behind.queue.depth", queue, Collection::size).register(meterRegistry);
+
+        running = true;
+        writer = new Thread(this::writeLoop, "message-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Returns false when the queue stayed full for the whole offer timeout
+    public boolean enqueue(PendingMessage message) {
+        accepting.readLock().lock();
+        try {
+            if (running && queue.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            accepting.readLock().unlock();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    private void writeLoop() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingMessage first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("Message write-behind batch failed: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void write(List<PendingMessage> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                insert(batch);
+                persisted.increment(batch.size());
+                recentMessages.persisted(batch.stream().map(PendingMessage::dto).toList());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    // A batch can fail because of a single bad row; retry row by row before giving up
+                    if (batch.size() > 1) {
+                        batch.forEach(message -> write(List.of(message)));
+                    } else {
+                        failed.increment();
+                        notifySenderOfFailure(batch.get(0), e);
+                    }
+                    return;
+                }
+                sleepBeforeRetry(attempt);
+            }
+        }
+    }
+
+    // The rooms already point at these messages (RoomSequenceAllocator.claim), so only the rows are written
+    private void insert(List<PendingMessage> batch) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, message) -> {
+                    Timestamp createdAt = Timestamp.valueOf(message.createdAt());
+                    ps.setLong(1, message.id());
+                    ps.setString(2, message.content());
+                    ps.setTimestamp(3, createdAt);
+                    ps.setTimestamp(4, createdAt);
+                    ps.setBoolean(5, true);
+                    ps.setLong(6, message.senderId());
+                    ps.setLong(7, message.chatRoomId());
+                    ps.setString(8, message.type().name());
+                    ps.setLong(9, message.roomSeq());
+                }));
+    }
+
+    private void notifySenderOfFailure(PendingMessage message, RuntimeException cause) {
+        System.err.println("Failed to persist message " + message.id() + ": " + cause.getMessage());
+        recentMessages.remove(message.chatRoomId(), message.id());
+        var error = new Object() {
+            public final String errorType = "MESSAGE_NOT_PERSISTED";
+            public final Long messageId = message.id();
+            public final Long chatRoomId = message.chatRoomId();
+        };
+        messagingTemplate.convertAndSendToUser(message.senderUsername(), "/queue/errors", error);
+        // The room may still point at the lost message; if this fails too, LastMessageRepair gets it later
+        try {
+            lastMessageRepair.repoint(message.chatRoomId(), message.id());
+        } catch (RuntimeException e) {
+            System.err.println("Failed to repoint chat room " + message.chatRoomId() + ": " + e.getMessage());
+        }
+    }
+
+    private void sleepBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(50L * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Stop accepting, let the writer finish its batch, then persist whatever is still queued
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        accepting.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            accepting.writeLock().unlock();
+        }
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        List<PendingMessage> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            write(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+    }
+}
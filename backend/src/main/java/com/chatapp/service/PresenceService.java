@@ -0,0 +1,220 @@
+package com.chatapp.service;
+
+import com.chatapp.repository.UserRepository;
+import com.chatapp.security.CustomUserDetailsService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import java.security.Principal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Online state lives here, driven by STOMP session connect/disconnect plus the client's away flag
+// (tab hidden). Changes are broadcast only once they have settled for debounce-ms, and only to
+// connected users sharing a room; is_online/last_seen reach the users table in periodic batches.
+// Who is connected comes from SimpUserRegistry, which in relay mode also lists the other nodes' users
+// (refreshed on the registry broadcast interval), so co-members on any node are notified and a user
+// who leaves this node but is still connected to another isn't reported offline.
+@Component
+public class PresenceService {
+
+    @Value("${chatapp.presence.debounce-ms:3000}")
+    private long debounceMs;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private SimpUserRegistry userRegistry;
+
+    private final ConcurrentHashMap<String, Presence> presences = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        if (user != null) {
+            String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+            update(user.getName(), presence -> presence.connect(sessionId));
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        Principal user = event.getUser();
+        if (user != null) {
+            presences.computeIfPresent(user.getName(), (name, presence) -> {
+                presence.disconnect(event.getSessionId());
+                return presence;
+            });
+        }
+    }
+
+    public void setAway(String username, boolean away) {
+        update(username, presence -> presence.setAway(away));
+    }
+
+    public boolean isOnline(String username) {
+        Presence presence = presences.get(username);
+        return presence != null && presence.isOnline();
+    }
+
+    // Changes go through compute() so they can't race with flushToDatabase() dropping the entry
+    private void update(String username, Consumer<Presence> change) {
+        Long userId = userDetailsService.loadCachedPrincipal(username).getId();
+        presences.compute(username, (name, presence) -> {
+            Presence current = presence != null ? presence : new Presence(userId, name);
+            change.accept(current);
+            return current;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${chatapp.presence.broadcast-interval-ms:1000}")
+    public void broadcastSettledChanges() {
+        long settledBefore = System.currentTimeMillis() - debounceMs;
+        for (Presence presence : presences.values()) {
+            StatusChange change = presence.takeSettledChange(settledBefore);
+            if (change != null) {
+                broadcast(presence, change);
+            }
+        }
+    }
+
+    private void broadcast(Presence presence, StatusChange change) {
+        // The node they are still on reports them offline when they leave it
+        if (!change.online() && !presence.hasSessions() && userRegistry.getUser(presence.username) != null) {
+            return;
+        }
+        var statusUpdate = new Object() {
+            public final Long userId = presence.userId;
+            public final String username = presence.username;
+            public final Boolean isOnline = change.online();
+            public final String lastSeen = change.lastSeen().toString();
+        };
+
+        for (String coMember : userRepository.findCoMemberUsernames(presence.userId)) {
+            if (userRegistry.getUser(coMember) != null) {
+                messagingTemplate.convertAndSendToUser(coMember, "/queue/user-status", statusUpdate);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chatapp.presence.flush-interval-ms:10000}")
+    public void flushToDatabase() {
+        List<Object[]> rows = new ArrayList<>();
+        for (Presence presence : presences.values()) {
+            StatusChange change = presence.takeUnflushed();
+            if (change != null) {
+                rows.add(new Object[]{change.online(), Timestamp.valueOf(change.lastSeen()), presence.userId});
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE users SET is_online = ?, last_seen = ? WHERE id = ?", rows);
+        }
+        // Forget users who are gone and have nothing left to send or write
+        for (String username : presences.keySet()) {
+            presences.computeIfPresent(username, (name, presence) -> presence.isIdle() ? null : presence);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushToDatabase();
+    }
+
+    private record StatusChange(boolean online, LocalDateTime lastSeen) {}
+
+    private static final class Presence {
+        private final Long userId;
+        private final String username;
+        private final Set<String> sessions = new HashSet<>();
+        private boolean away;
+        private boolean broadcastOnline;
+        private boolean unflushed;
+        private long changedAt;
+        private LocalDateTime lastSeen = LocalDateTime.now();
+
+        Presence(Long userId, String username) {
+            this.userId = userId;
+            this.username = username;
+        }
+
+        synchronized void connect(String sessionId) {
+            boolean wasOnline = isOnline();
+            sessions.add(sessionId);
+            changed(wasOnline);
+        }
+
+        synchronized void disconnect(String sessionId) {
+            boolean wasOnline = isOnline();
+            sessions.remove(sessionId);
+            changed(wasOnline);
+        }
+
+        synchronized void setAway(boolean away) {
+            boolean wasOnline = isOnline();
+            this.away = away;
+            changed(wasOnline);
+        }
+
+        synchronized boolean hasSessions() {
+            return !sessions.isEmpty();
+        }
+
+        synchronized boolean isOnline() {
+            return !sessions.isEmpty() && !away;
+        }
+
+        private void changed(boolean wasOnline) {
+            if (wasOnline != isOnline()) {
+                changedAt = System.currentTimeMillis();
+                lastSeen = LocalDateTime.now();
+                unflushed = true;
+            }
+        }
+
+        // A flap that ends where the last broadcast left off produces nothing
+        synchronized StatusChange takeSettledChange(long settledBefore) {
+            if (isOnline() == broadcastOnline || changedAt > settledBefore) {
+                return null;
+            }
+            broadcastOnline = isOnline();
+            return new StatusChange(broadcastOnline, lastSeen);
+        }
+
+        synchronized StatusChange takeUnflushed() {
+            if (!unflushed) {
+                return null;
+            }
+            unflushed = false;
+            return new StatusChange(isOnline(), lastSeen);
+        }
+
+        synchronized boolean isIdle() {
+            return sessions.isEmpty() && !unflushed && !broadcastOnline;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.chatapp.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Coalesces read-watermark changes so each room gets at most one /status frame per flush interval,
+// carrying the furthest watermark (a room seq) of every member who read during that window
+@Component
+public class ReadStatusBroadcaster {
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final ConcurrentHashMap<Long, PendingStatus> pending = new ConcurrentHashMap<>();
+
+    public void watermarkAdvanced(Long chatRoomId, Long userId, Long upToSeq, LocalDateTime readAt) {
+        // A status already taken by flush() refuses new records; retry against a fresh one
+        while (!pending.computeIfAbsent(chatRoomId, id -> new PendingStatus()).record(userId, upToSeq, readAt)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chatapp.read-status.flush-interval-ms:500}")
+    public void flush() {
+        for (Long chatRoomId : pending.keySet()) {
+            PendingStatus status = pending.remove(chatRoomId);
+            if (status != null) {
+                broadcast(chatRoomId, status);
+            }
+        }
+    }
+
+    private void broadcast(Long roomId, PendingStatus status) {
+        Map<Long, Long> readerWatermarks;
+        Long furthestReader;
+        LocalDateTime latestReadAt;
+        synchronized (status) {
+            status.closed = true;
+            readerWatermarks = new HashMap<>(status.readers);
+            furthestReader = status.furthestReader;
+            latestReadAt = status.latestReadAt;
+        }
+        Long highWaterMark = readerWatermarks.get(furthestReader);
+
+        var statusUpdate = new Object() {
+            public final Long upToSeq = highWaterMark;
+            public final Long readerId = furthestReader;
+            public final Map<Long, Long> readers = readerWatermarks;
+            public final String statusType = "READ";
+            public final String readAt = latestReadAt.toString();
+            public final Long chatRoomId = roomId;
+        };
+
+        messagingTemplate.convertAndSend("/topic/chatroom/" + roomId + "/status", statusUpdate);
+    }
+
+    private static class PendingStatus {
+        private final Map<Long, Long> readers = new HashMap<>();
+        private Long furthestReader;
+        private LocalDateTime latestReadAt;
+        private boolean closed;
+
+        synchronized boolean record(Long userId, Long upToSeq, LocalDateTime readAt) {
+            if (closed) {
+                return false;
+            }
+            readers.merge(userId, upToSeq, Math::max);
+            if (furthestReader == null || readers.get(userId) > readers.get(furthestReader)) {
+                furthestReader = userId;
+            }
+            latestReadAt = readAt;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.chatapp.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+// Moves a member's read watermark forward in one upsert. Memberships created before read states existed
+// get their row on first read, and two first reads of the same room (two tabs, a retried frame) both land
+// on the primary key: the loser of the insert turns into the monotonic update instead of failing. A
+// watermark never moves backwards, so late or duplicate read calls change nothing.
+@Component
+public class ReadWatermarkWriter {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO chat_room_read_states (chat_room_id, user_id, last_read_seq, updated_at) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (chat_room_id, user_id) DO UPDATE " +
+            "SET last_read_seq = EXCLUDED.last_read_seq, updated_at = EXCLUDED.updated_at " +
+            "WHERE chat_room_read_states.last_read_seq < EXCLUDED.last_read_seq";
+
+    // H2 has no ON CONFLICT ... DO UPDATE. Its MERGE can still lose the insert race with a duplicate key,
+    // after which the row exists and a second attempt takes the update branch.
+    private static final String H2_UPSERT_SQL =
+            "MERGE INTO chat_room_read_states r " +
+            "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS TIMESTAMP))) " +
+            "v (chat_room_id, user_id, last_read_seq, updated_at) " +
+            "ON r.chat_room_id = v.chat_room_id AND r.user_id = v.user_id " +
+            "WHEN MATCHED AND r.last_read_seq < v.last_read_seq THEN " +
+            "UPDATE SET last_read_seq = v.last_read_seq, updated_at = v.updated_at " +
+            "WHEN NOT MATCHED THEN INSERT (chat_room_id, user_id, last_read_seq, updated_at) " +
+            "VALUES (v.chat_room_id, v.user_id, v.last_read_seq, v.updated_at)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String upsertSql;
+
+    @PostConstruct
+    void init() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        upsertSql = "H2".equals(database) ? H2_UPSERT_SQL : UPSERT_SQL;
+    }
+
+    // True when the watermark moved (or the row was created), false when it was already at or past seq
+    public boolean advance(Long chatRoomId, Long userId, long seq, LocalDateTime readAt) {
+        try {
+            return jdbcTemplate.update(upsertSql, chatRoomId, userId, seq, Timestamp.valueOf(readAt)) > 0;
+        } catch (DuplicateKeyException e) {
+            return jdbcTemplate.update(upsertSql, chatRoomId, userId, seq, Timestamp.valueOf(readAt)) > 0;
+        }
+    }
+}
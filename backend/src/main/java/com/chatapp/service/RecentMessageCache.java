@@ -0,0 +1,309 @@
+package com.chatapp.service;
+
+import com.chatapp.dto.MessageDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// The newest messages of recently active rooms, as wire DTOs in room-seq order, so opening a chat and
+// the last-message lookup skip the database. Each room holds a fixed-size ring buffer filled by every
+// message write and by cold history reads. Rooms are evicted least-recently-used once either the room
+// count or the estimated byte total passes its budget. Messages that fail to persist and deleted rooms
+// are removed here too. All access is under one lock: every operation touches at most one buffer.
+// In a relay cluster, a room whose messages change once they are in the database is dropped on the other
+// nodes (ClusterEvents), which reload it on their next read.
+@Component
+public class RecentMessageCache {
+
+    static final String RECENT_MESSAGES_EVENT = "recent-messages";
+
+    @Value("${chatapp.recent-messages.per-room:50}")
+    private int perRoom;
+
+    @Value("${chatapp.recent-messages.max-rooms:2000}")
+    private int maxRooms;
+
+    @Value("${chatapp.recent-messages.max-bytes:33554432}")
+    private long maxBytes;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ClusterEvents clusterEvents;
+
+    // Guarded by this; access order, so the eldest entry is the least recently used room
+    private final LinkedHashMap<Long, RoomBuffer> rooms = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    private long generation;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    @PostConstruct
+    void init() {
+        hits = Counter.builder("chatapp.recent-messages.cache").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("chatapp.recent-messages.cache").tag("result", "miss").register(meterRegistry);
+        evictions = Counter.builder("chatapp.recent-messages.cache.evictions").register(meterRegistry);
+        Gauge.builder("chatapp.recent-messages.cache.rooms", this, RecentMessageCache::size).register(meterRegistry);
+        Gauge.builder("chatapp.recent-messages.cache.bytes", this, RecentMessageCache::bytes).register(meterRegistry);
+        clusterEvents.subscribe(RECENT_MESSAGES_EVENT, this::evict, this::clear);
+    }
+
+    public int perRoom() {
+        return perRoom;
+    }
+
+    // The newest `limit` messages, oldest first, or null when the buffer can't answer on its own. A room
+    // known to have fewer messages than asked for answers with all of them, possibly none.
+    public synchronized List<MessageDto> latest(long chatRoomId, int limit) {
+        RoomBuffer buffer = rooms.get(chatRoomId);
+        if (buffer == null || (buffer.count < limit && !buffer.complete)) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return buffer.latest(limit);
+    }
+
+    // For a message that is already in the database
+    public void appendPersisted(MessageDto message) {
+        append(message);
+        clusterEvents.publish(RECENT_MESSAGES_EVENT, message.chatRoomId());
+    }
+
+    // Write-behind messages that just committed, appended here when they were queued. In a cluster they
+    // are appended again, in case another node's change dropped the room before they were in the
+    // database, and each room is announced once.
+    public void persisted(List<MessageDto> messages) {
+        if (!clusterEvents.isClustered()) {
+            return;
+        }
+        Set<Long> chatRoomIds = new HashSet<>();
+        for (MessageDto message : messages) {
+            append(message);
+            chatRoomIds.add(message.chatRoomId());
+        }
+        chatRoomIds.forEach(chatRoomId -> clusterEvents.publish(RECENT_MESSAGES_EVENT, chatRoomId));
+    }
+
+    // Only this node; other nodes are told through appendPersisted() or persisted()
+    public synchronized void append(MessageDto message) {
+        RoomBuffer buffer = rooms.get(message.chatRoomId());
+        if (buffer == null) {
+            buffer = new RoomBuffer(perRoom);
+            // The room's first message: nothing older exists, so this buffer is the whole room
+            buffer.complete = message.seq() != null && message.seq() == 1L;
+            rooms.put(message.chatRoomId(), buffer);
+        }
+        totalBytes += buffer.add(message);
+        evictOverBudget();
+    }
+
+    // Taken before a cold read; seed() drops the result if anything was removed in between
+    public synchronized long generation() {
+        return generation;
+    }
+
+    // Installs the newest messages read from the database, oldest first. `complete` means the room has
+    // no messages older than these. Messages appended while the query ran are kept.
+    public synchronized void seed(long chatRoomId, List<MessageDto> ascending, boolean complete, long loadedAt) {
+        if (generation != loadedAt || ascending.isEmpty()) {
+            return;
+        }
+        RoomBuffer buffer = new RoomBuffer(perRoom);
+        buffer.complete = complete;
+        for (MessageDto message : ascending) {
+            buffer.add(message);
+        }
+        RoomBuffer previous = rooms.put(chatRoomId, buffer);
+        if (previous != null) {
+            totalBytes -= previous.bytes;
+            for (MessageDto message : previous.latest(previous.count)) {
+                buffer.add(message);
+            }
+        }
+        totalBytes += buffer.bytes;
+        evictOverBudget();
+    }
+
+    public void remove(long chatRoomId, long messageId) {
+        synchronized (this) {
+            generation++;
+            RoomBuffer buffer = rooms.get(chatRoomId);
+            if (buffer != null) {
+                totalBytes -= buffer.remove(messageId);
+            }
+        }
+        clusterEvents.publish(RECENT_MESSAGES_EVENT, chatRoomId);
+    }
+
+    public void removeRoom(long chatRoomId) {
+        evict(chatRoomId);
+        clusterEvents.publish(RECENT_MESSAGES_EVENT, chatRoomId);
+    }
+
+    // Drops the room without telling other nodes; a seed already in flight is discarded too
+    synchronized void evict(long chatRoomId) {
+        generation++;
+        RoomBuffer buffer = rooms.remove(chatRoomId);
+        if (buffer != null) {
+            totalBytes -= buffer.bytes;
+        }
+    }
+
+    synchronized void clear() {
+        generation++;
+        rooms.clear();
+        totalBytes = 0;
+    }
+
+    public synchronized int size() {
+        return rooms.size();
+    }
+
+    public synchronized long bytes() {
+        return totalBytes;
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<Long, RoomBuffer>> eldest = rooms.entrySet().iterator();
+        // The room just written is the newest entry and is never evicted by its own write
+        while ((rooms.size() > maxRooms || totalBytes > maxBytes) && rooms.size() > 1) {
+            totalBytes -= eldest.next().getValue().bytes;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    // Rough retained size: record, sender, strings and timestamp headers plus two bytes per char
+    static long estimateBytes(MessageDto message) {
+        int chars = (message.content() != null ? message.content().length() : 0)
+                + (message.sender() != null && message.sender().username() != null ? message.sender().username().length() : 0);
+        return 200 + 2L * chars;
+    }
+
+    // Ring of the newest messages in ascending seq; not thread-safe, guarded by the cache lock
+    static final class RoomBuffer {
+        private final MessageDto[] slots;
+        private int head;
+        private int count;
+        private long bytes;
+        // True when no message older than the oldest buffered one exists
+        private boolean complete;
+
+        RoomBuffer(int capacity) {
+            slots = new MessageDto[capacity];
+        }
+
+        // Returns the change in estimated bytes
+        long add(MessageDto message) {
+            if (count > 0 && seqOf(newest()) >= seqOf(message)) {
+                return insertOutOfOrder(message);
+            }
+            long delta = estimateBytes(message);
+            if (count == slots.length) {
+                delta -= estimateBytes(slots[head]);
+                slots[head] = message;
+                head = (head + 1) % slots.length;
+                complete = false;
+            } else {
+                slots[(head + count) % slots.length] = message;
+                count++;
+            }
+            bytes += delta;
+            return delta;
+        }
+
+        long remove(long messageId) {
+            List<MessageDto> kept = new ArrayList<>(count);
+            long freed = 0;
+            for (MessageDto message : latest(count)) {
+                if (message.id() == messageId) {
+                    freed = estimateBytes(message);
+                } else {
+                    kept.add(message);
+                }
+            }
+            if (freed > 0) {
+                rebuild(kept);
+            }
+            return freed;
+        }
+
+        List<MessageDto> latest(int limit) {
+            int n = Math.min(limit, count);
+            List<MessageDto> result = new ArrayList<>(n);
+            for (int i = count - n; i < count; i++) {
+                result.add(slots[(head + i) % slots.length]);
+            }
+            return result;
+        }
+
+        // Senders in the same room can reach the cache out of seq order; rare, so a rebuild is fine
+        private long insertOutOfOrder(MessageDto message) {
+            if (contains(message.id())) {
+                return 0;
+            }
+            List<MessageDto> ordered = latest(count);
+            int index = 0;
+            while (index < ordered.size() && seqOf(ordered.get(index)) < seqOf(message)) {
+                index++;
+            }
+            if (index == 0 && count == slots.length) {
+                // Older than everything in a full buffer
+                return 0;
+            }
+            ordered.add(index, message);
+            long before = bytes;
+            if (ordered.size() > slots.length) {
+                ordered.remove(0);
+                complete = false;
+            }
+            rebuild(ordered);
+            return bytes - before;
+        }
+
+        // Newest first: a repeated append is almost always one of the last few messages
+        private boolean contains(Long messageId) {
+            for (int i = count - 1; i >= 0; i--) {
+                if (slots[(head + i) % slots.length].id().equals(messageId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void rebuild(List<MessageDto> ascending) {
+            Arrays.fill(slots, null);
+            head = 0;
+            count = 0;
+            bytes = 0;
+            for (MessageDto message : ascending) {
+                slots[count++] = message;
+                bytes += estimateBytes(message);
+            }
+        }
+
+        private MessageDto newest() {
+            return slots[(head + count - 1) % slots.length];
+        }
+
+        private static long seqOf(MessageDto message) {
+            return message.seq() != null ? message.seq() : 0L;
+        }
+    }
+}
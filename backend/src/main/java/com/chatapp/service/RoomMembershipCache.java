@@ -0,0 +1,293 @@
+package com.chatapp.service;
+
+import com.chatapp.repository.ChatRoomRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Room -> member ids and user -> room ids, so subscribe/send authorisation and typing fan-out never
+// walk ChatRoom.members. Rooms are loaded on first lookup into a fixed, direct-mapped slot table
+// (room ids come from a sequence, so consecutive ids land in distinct slots); a room loaded into an
+// occupied slot evicts the previous one. Lookups are lock-free and allocation-free; changes made by
+// ChatRoomService are applied in place under a lock. In a relay cluster each change also evicts the room
+// on the other nodes (ClusterEvents), which reload it from the database on their next lookup.
+@Component
+public class RoomMembershipCache {
+
+    static final String MEMBERSHIP_EVENT = "membership";
+
+    @Value("${chatapp.membership-cache.max-rooms:65536}")
+    private int maxRooms;
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ClusterEvents clusterEvents;
+
+    private AtomicReferenceArray<Room> slots;
+    private int mask;
+
+    // Guarded by this; only rooms present in slots are indexed here
+    private final Map<Long, LongSet> roomsByUser = new HashMap<>();
+    private long generation;
+    private volatile int cachedRooms;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    @PostConstruct
+    void init() {
+        int capacity = Integer.highestOneBit(Math.max(2, maxRooms) - 1) << 1;
+        slots = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+
+        hits = Counter.builder("chatapp.membership.cache").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("chatapp.membership.cache").tag("result", "miss").register(meterRegistry);
+        evictions = Counter.builder("chatapp.membership.cache.evictions").register(meterRegistry);
+        Gauge.builder("chatapp.membership.cache.size", this, RoomMembershipCache::size).register(meterRegistry);
+        clusterEvents.subscribe(MEMBERSHIP_EVENT, this::evict, this::clear);
+    }
+
+    public boolean isMember(long chatRoomId, long userId) {
+        Room room = slots.get(slot(chatRoomId));
+        if (room != null && room.id == chatRoomId) {
+            hits.increment();
+            return room.members.contains(userId);
+        }
+        misses.increment();
+        room = load(chatRoomId);
+        return room != null && room.members.contains(userId);
+    }
+
+    // Rooms of this user that are currently cached; not a complete list of the user's rooms
+    public synchronized long[] cachedRoomsOf(long userId) {
+        LongSet rooms = roomsByUser.get(userId);
+        return rooms != null ? rooms.toArray() : new long[0];
+    }
+
+    public synchronized void putRoom(long chatRoomId, Collection<Long> memberIds) {
+        generation++;
+        install(new Room(chatRoomId, LongSet.of(memberIds)));
+    }
+
+    public void addMember(long chatRoomId, long userId) {
+        synchronized (this) {
+            generation++;
+            Room room = cached(chatRoomId);
+            if (room != null && !room.members.contains(userId)) {
+                slots.set(slot(chatRoomId), new Room(chatRoomId, room.members.with(userId)));
+                roomsByUser.merge(userId, LongSet.of(chatRoomId), (rooms, ignored) -> rooms.with(chatRoomId));
+            }
+        }
+        clusterEvents.publish(MEMBERSHIP_EVENT, chatRoomId);
+    }
+
+    public void removeMember(long chatRoomId, long userId) {
+        synchronized (this) {
+            generation++;
+            Room room = cached(chatRoomId);
+            if (room != null && room.members.contains(userId)) {
+                slots.set(slot(chatRoomId), new Room(chatRoomId, room.members.without(userId)));
+                unindex(userId, chatRoomId);
+            }
+        }
+        clusterEvents.publish(MEMBERSHIP_EVENT, chatRoomId);
+    }
+
+    public void removeRoom(long chatRoomId) {
+        evict(chatRoomId);
+        clusterEvents.publish(MEMBERSHIP_EVENT, chatRoomId);
+    }
+
+    // Drops the room without telling other nodes; the next lookup reloads it
+    synchronized void evict(long chatRoomId) {
+        generation++;
+        Room room = cached(chatRoomId);
+        if (room != null) {
+            slots.set(slot(chatRoomId), null);
+            cachedRooms--;
+            for (long userId : room.members.toArray()) {
+                unindex(userId, chatRoomId);
+            }
+        }
+    }
+
+    synchronized void clear() {
+        generation++;
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+        roomsByUser.clear();
+        cachedRooms = 0;
+    }
+
+    public int size() {
+        return cachedRooms;
+    }
+
+    private Room load(long chatRoomId) {
+        long loadedAt;
+        synchronized (this) {
+            loadedAt = generation;
+        }
+        LongSet members = LongSet.of(chatRoomRepository.findMemberIds(chatRoomId));
+        if (members.isEmpty()) {
+            // Unknown or empty room; not cached so bogus ids can't evict real rooms
+            return null;
+        }
+        Room room = new Room(chatRoomId, members);
+        synchronized (this) {
+            // A membership change since the query started may not be in its result; use it once, don't cache it
+            if (generation == loadedAt) {
+                install(room);
+            }
+        }
+        return room;
+    }
+
+    private void install(Room room) {
+        Room previous = slots.getAndSet(slot(room.id), room);
+        if (previous == null) {
+            cachedRooms++;
+        } else {
+            for (long userId : previous.members.toArray()) {
+                unindex(userId, previous.id);
+            }
+            if (previous.id != room.id) {
+                evictions.increment();
+            }
+        }
+        for (long userId : room.members.toArray()) {
+            roomsByUser.merge(userId, LongSet.of(room.id), (rooms, ignored) -> rooms.with(room.id));
+        }
+    }
+
+    private void unindex(long userId, long chatRoomId) {
+        roomsByUser.computeIfPresent(userId, (id, rooms) -> {
+            LongSet remaining = rooms.without(chatRoomId);
+            return remaining.isEmpty() ? null : remaining;
+        });
+    }
+
+    private Room cached(long chatRoomId) {
+        Room room = slots.get(slot(chatRoomId));
+        return room != null && room.id == chatRoomId ? room : null;
+    }
+
+    private int slot(long chatRoomId) {
+        return (int) (chatRoomId ^ (chatRoomId >>> 32)) & mask;
+    }
+
+    private record Room(long id, LongSet members) {
+    }
+
+    // Immutable open-addressing set of positive longs (generated ids); 0 marks an empty bucket
+    static final class LongSet {
+
+        private static final LongSet EMPTY = new LongSet(new long[2], 0);
+
+        private final long[] table;
+        private final int size;
+
+        private LongSet(long[] table, int size) {
+            this.table = table;
+            this.size = size;
+        }
+
+        static LongSet of(Collection<Long> values) {
+            return build(values.stream().mapToLong(Long::longValue).toArray());
+        }
+
+        static LongSet of(long value) {
+            return build(new long[] {value});
+        }
+
+        private static LongSet build(long[] values) {
+            if (values.length == 0) {
+                return EMPTY;
+            }
+            // At most half full, so probe sequences stay short
+            long[] table = new long[Integer.highestOneBit(values.length) << 2];
+            int size = 0;
+            for (long value : values) {
+                if (value > 0 && insert(table, value)) {
+                    size++;
+                }
+            }
+            return new LongSet(table, size);
+        }
+
+        private static boolean insert(long[] table, long value) {
+            int mask = table.length - 1;
+            int i = mix(value) & mask;
+            while (table[i] != 0) {
+                if (table[i] == value) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            table[i] = value;
+            return true;
+        }
+
+        boolean contains(long value) {
+            if (value <= 0) {
+                return false;
+            }
+            int mask = table.length - 1;
+            int i = mix(value) & mask;
+            long current;
+            while ((current = table[i]) != 0) {
+                if (current == value) {
+                    return true;
+                }
+                i = (i + 1) & mask;
+            }
+            return false;
+        }
+
+        LongSet with(long value) {
+            long[] values = Arrays.copyOf(toArray(), size + 1);
+            values[size] = value;
+            return build(values);
+        }
+
+        LongSet without(long value) {
+            return build(Arrays.stream(toArray()).filter(v -> v != value).toArray());
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long[] toArray() {
+            long[] values = new long[size];
+            int n = 0;
+            for (long value : table) {
+                if (value != 0) {
+                    values[n++] = value;
+                }
+            }
+            return values;
+        }
+
+        private static int mix(long value) {
+            long h = value * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
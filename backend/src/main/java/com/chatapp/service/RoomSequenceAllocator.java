@@ -0,0 +1,46 @@
+package com.chatapp.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+// Hands out the next per-room message sequence number by incrementing chat_rooms.last_message_seq, and
+// in the same statement points the room's last-message columns at the message taking it, so each
+// message costs one UPDATE of the room row. The row lock serialises concurrent senders in the same room
+// only, which keeps the pointer on the highest seq, and the counter lives in the database so every node
+// in a relay cluster draws from the same sequence. The message id must be known up front
+// (MessageIdAllocator); the row itself is inserted afterwards.
+@Component
+public class RoomSequenceAllocator {
+
+    private static final String CLAIM_SQL =
+            "UPDATE chat_rooms SET last_message_seq = last_message_seq + 1, last_message_id = ?, " +
+            "last_message_at = ?, last_message_preview = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String claimSql;
+
+    @PostConstruct
+    void init() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        claimSql = "H2".equals(database)
+                ? "SELECT last_message_seq FROM FINAL TABLE (" + CLAIM_SQL + ")"
+                : CLAIM_SQL + " RETURNING last_message_seq";
+    }
+
+    public long claim(Long chatRoomId, long messageId, LocalDateTime sentAt, String preview) {
+        Long seq = jdbcTemplate.query(claimSql, rs -> rs.next() ? rs.getLong(1) : null,
+                messageId, Timestamp.valueOf(sentAt), preview, chatRoomId);
+        if (seq == null) {
+            throw new RuntimeException("Chat room not found");
+        }
+        return seq;
+    }
+}
@@ -0,0 +1,91 @@
+package com.chatapp.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Typing indicators arrive on every keystroke, so nothing here touches the database: identity comes
+// from the STOMP session, membership from RoomMembershipCache. Per user and room, "typing" is
+// forwarded at most once per throttle-ms, "stopped" only if "typing" was forwarded, and events
+// carrying a seq not newer than the last one seen on that session are dropped as stale.
+@Component
+public class TypingService {
+
+    @Value("${chatapp.typing.throttle-ms:2000}")
+    private long throttleMs;
+
+    @Value("${chatapp.typing.state-ttl-ms:60000}")
+    private long stateTtlMs;
+
+    @Autowired
+    private RoomMembershipCache membershipCache;
+
+    @Autowired
+    private BroadcastPublisher broadcastPublisher;
+
+    private final ConcurrentHashMap<Key, State> states = new ConcurrentHashMap<>();
+
+    public boolean typing(Long senderId, String senderName, Long roomId, boolean isTyping,
+                          String sessionId, Long seq) {
+        if (senderId == null || roomId == null || !membershipCache.isMember(roomId, senderId)) {
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        boolean[] forward = new boolean[1];
+        states.compute(new Key(roomId, senderId), (key, state) -> {
+            State current = state != null ? state : new State();
+            if (seq != null) {
+                // Sequence numbers are per connection; a new session starts its own count
+                if (sessionId != null && sessionId.equals(current.sessionId) && seq <= current.lastSeq) {
+                    return current;
+                }
+                current.sessionId = sessionId;
+                current.lastSeq = seq;
+            }
+            forward[0] = isTyping
+                    ? !current.typing || now - current.forwardedAt >= throttleMs
+                    : current.typing;
+            if (forward[0]) {
+                current.typing = isTyping;
+                current.forwardedAt = now;
+            }
+            current.touchedAt = now;
+            return current;
+        });
+
+        if (forward[0]) {
+            var typingIndicator = new Object() {
+                public final Long userId = senderId;
+                public final String username = senderName;
+                public final Boolean typing = isTyping;
+                public final Long chatRoomId = roomId;
+            };
+            broadcastPublisher.publish("/topic/chatroom/" + roomId + "/typing", typingIndicator);
+        }
+        return forward[0];
+    }
+
+    @Scheduled(fixedDelayString = "${chatapp.typing.cleanup-interval-ms:60000}")
+    public void evictIdleStates() {
+        long idleBefore = System.currentTimeMillis() - stateTtlMs;
+        states.values().removeIf(state -> state.touchedAt < idleBefore);
+    }
+
+    int trackedStates() {
+        return states.size();
+    }
+
+    private record Key(Long chatRoomId, Long userId) {
+    }
+
+    private static class State {
+        private String sessionId;
+        private long lastSeq = Long.MIN_VALUE;
+        private boolean typing;
+        private long forwardedAt;
+        private long touchedAt;
+    }
+}
@@ -1,59 +1,87 @@
 package com.chatapp.service;
 
+import com.chatapp.dto.UserDto;
 import com.chatapp.model.User;
 import com.chatapp.repository.UserRepository;
+import com.chatapp.security.CustomUserDetailsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
 
 @Service
 public class UserService {
 
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+    public static final int MAX_SEARCH_LIMIT = 50;
+    private static final int MAX_QUERY_LENGTH = 50;
+    public static final int DEFAULT_DIRECTORY_LIMIT = 50;
+    public static final int MAX_DIRECTORY_LIMIT = 200;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private PresenceService presenceService;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
-    public List<User> searchUsers(String query, String currentUsername) {
-        return userRepository.searchUsers(query)
-                .stream()
-                .filter(user -> !user.getUsername().equals(currentUsername))
-                .collect(Collectors.toList());
+    public List<User> searchUsers(String query, Integer limit, String currentUsername) {
+        String text = query == null ? "" : query.strip().toLowerCase(Locale.ROOT);
+        if (text.isEmpty()) {
+            return List.of();
+        }
+        if (text.length() > MAX_QUERY_LENGTH) {
+            text = text.substring(0, MAX_QUERY_LENGTH);
+        }
+        Long callerId = userDetailsService.loadCachedPrincipal(currentUsername).getId();
+        int pageSize = limit == null ? DEFAULT_SEARCH_LIMIT : Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        String escaped = text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        // Fewer than three characters has no trigram to look up, so a substring match would scan every user
+        if (text.length() < 3) {
+            return userRepository.searchUsersByPrefix(text, escaped + "%", callerId, pageSize);
+        }
+        return userRepository.searchUsers(text, escaped + "%", "%" + escaped + "%", callerId, pageSize);
     }
 
-    public List<User> getAllUsersExceptCurrent(String currentUsername) {
-        return userRepository.findAllExceptCurrent(currentUsername);
+    // One directory page in username order, starting after the last username of the previous page.
+    // A page shorter than the limit is the last one.
+    public List<User> getDirectoryPage(String after, Integer limit, String currentUsername) {
+        Long callerId = userDetailsService.loadCachedPrincipal(currentUsername).getId();
+        int pageSize = limit == null ? DEFAULT_DIRECTORY_LIMIT : Math.max(1, Math.min(limit, MAX_DIRECTORY_LIMIT));
+        return userRepository.findDirectoryPage(after != null ? after : "", callerId, PageRequest.of(0, pageSize));
     }
 
-    @Transactional
-    public void updateOnlineStatus(String username, Boolean isOnline) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        user.setIsOnline(isOnline);
-        user.setLastSeen(LocalDateTime.now());
-        User savedUser = userRepository.save(user);
-        
-        // Broadcast online status change to all users
-        broadcastOnlineStatusChange(savedUser);
+    // Writes every user but the caller as newline-delimited JSON, one directory page at a time. Each page
+    // is read in its own short query and written once its connection is back in the pool, so a slow client
+    // holds one page of memory and never a database connection.
+    public void exportDirectory(String currentUsername, OutputStream out) throws IOException {
+        String after = null;
+        List<User> page;
+        do {
+            page = getDirectoryPage(after, MAX_DIRECTORY_LIMIT, currentUsername);
+            for (User user : page) {
+                out.write(objectMapper.writeValueAsBytes(UserDto.of(user)));
+                out.write('\n');
+            }
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getUsername();
+            }
+        } while (page.size() == MAX_DIRECTORY_LIMIT);
     }
 
-    private void broadcastOnlineStatusChange(User user) {
-        // Create a simple status update object
-        var statusUpdate = new Object() {
-            public final Long userId = user.getId();
-            public final String username = user.getUsername();
-            public final Boolean isOnline = user.getIsOnline();
-            public final String lastSeen = user.getLastSeen().toString();
-        };
-        
-        // Broadcast to all connected users
-        messagingTemplate.convertAndSend("/topic/user-status", statusUpdate);
+    // Explicit status from the client (tab hidden/visible); connection state itself comes from the
+    // WebSocket session, and PresenceService handles broadcasting and persisting both
+    public void updateOnlineStatus(String username, Boolean isOnline) {
+        presenceService.setAway(username, !Boolean.TRUE.equals(isOnline));
     }
 
     public User findByUsername(String username) {
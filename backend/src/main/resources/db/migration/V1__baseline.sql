@@ -0,0 +1,78 @@
+-- Baseline schema. Idempotent so it also applies to databases previously managed by ddl-auto: update
+-- (Flyway baselines those at version 0 and then runs this script).
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS chat_rooms_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS messages_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT       NOT NULL PRIMARY KEY,
+    username   VARCHAR(50)  NOT NULL UNIQUE,
+    email      VARCHAR(100) NOT NULL UNIQUE,
+    password   VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP(6),
+    last_seen  TIMESTAMP(6),
+    is_online  BOOLEAN
+);
+
+CREATE TABLE IF NOT EXISTS chat_rooms (
+    id         BIGINT       NOT NULL PRIMARY KEY,
+    name       VARCHAR(100) NOT NULL,
+    type       VARCHAR(255) CHECK (type IN ('DIRECT', 'GROUP')),
+    created_at TIMESTAMP(6),
+    created_by BIGINT REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS chat_room_members (
+    chat_room_id BIGINT NOT NULL REFERENCES chat_rooms (id),
+    user_id      BIGINT NOT NULL REFERENCES users (id),
+    PRIMARY KEY (chat_room_id, user_id)
+);
+
+CREATE TABLE IF NOT EXISTS messages (
+    id           BIGINT       NOT NULL PRIMARY KEY,
+    content      TEXT         NOT NULL,
+    created_at   TIMESTAMP(6),
+    sender_id    BIGINT       NOT NULL REFERENCES users (id),
+    chat_room_id BIGINT       NOT NULL REFERENCES chat_rooms (id),
+    type         VARCHAR(255) CHECK (type IN ('CHAT', 'JOIN', 'LEAVE')),
+    delivered_at TIMESTAMP(6),
+    is_delivered BOOLEAN
+);
+
+CREATE TABLE IF NOT EXISTS chat_room_read_states (
+    chat_room_id         BIGINT NOT NULL,
+    user_id              BIGINT NOT NULL,
+    last_read_message_id BIGINT NOT NULL,
+    updated_at           TIMESTAMP(6),
+    PRIMARY KEY (chat_room_id, user_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_messages_room_created_id ON messages (chat_room_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_messages_room_id ON messages (chat_room_id, id);
+
+-- Databases from before per-member read watermarks kept a single is_read flag per message.
+-- Seed each member's watermark with the newest message from someone else that was marked read.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = 'messages' AND column_name = 'is_read') THEN
+        INSERT INTO chat_room_read_states (chat_room_id, user_id, last_read_message_id, updated_at)
+        SELECT crm.chat_room_id, crm.user_id,
+               COALESCE((SELECT MAX(m.id) FROM messages m
+                         WHERE m.chat_room_id = crm.chat_room_id
+                           AND m.sender_id <> crm.user_id
+                           AND m.is_read), 0),
+               now()
+        FROM chat_room_members crm
+        ON CONFLICT (chat_room_id, user_id) DO NOTHING;
+
+        ALTER TABLE messages ALTER COLUMN is_read DROP NOT NULL;
+    END IF;
+END $$;
+
+-- Ids used to come from identity columns. Move each sequence one block past the highest id, never backwards
+-- (running nodes may already hold reserved blocks above it).
+SELECT setval('users_seq', GREATEST((SELECT last_value FROM users_seq), (SELECT COALESCE(MAX(id), 0) + 50 FROM users)));
+SELECT setval('chat_rooms_seq', GREATEST((SELECT last_value FROM chat_rooms_seq), (SELECT COALESCE(MAX(id), 0) + 50 FROM chat_rooms)));
+SELECT setval('messages_seq', GREATEST((SELECT last_value FROM messages_seq), (SELECT COALESCE(MAX(id), 0) + 50 FROM messages)));
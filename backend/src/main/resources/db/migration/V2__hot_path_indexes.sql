@@ -0,0 +1,22 @@
+-- Indexes for the queries in MessageRepository, ChatRoomRepository and UserRepository. These tables are
+-- written constantly, so every index is built and dropped CONCURRENTLY and this script runs outside a
+-- transaction; a replacement index is built before the one it supersedes is dropped.
+
+-- Chat list, MEMBER OF checks and findDirectChatRoom start from the user; the primary key
+-- (chat_room_id, user_id) only serves lookups by room.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_chat_room_members_user ON chat_room_members (user_id, chat_room_id);
+
+-- Unread counts scan (chat_room_id, id > watermark) and filter on sender_id; carrying sender_id in the index
+-- makes countUnreadMessagesForUser and the chat-list unread subquery index-only. Also serves MAX(id) per room.
+-- Supersedes V1's idx_messages_room_id on (chat_room_id, id).
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_messages_room_id_sender ON messages (chat_room_id, id) INCLUDE (sender_id);
+DROP INDEX CONCURRENTLY IF EXISTS idx_messages_room_id;
+
+-- idx_messages_room_created_id (V1) serves keyset history pages and the latest-message lookups
+-- (findTopByChatRoomOrderByCreatedAtDesc, chat-list top-1) by scanning backwards.
+
+-- Foreign keys that are otherwise unindexed; needed when users or rooms are deleted.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_messages_sender ON messages (sender_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_chat_rooms_created_by ON chat_rooms (created_by);
+
+-- users.username and users.email are covered by their unique constraints.
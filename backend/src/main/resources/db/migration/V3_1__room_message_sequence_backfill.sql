@@ -0,0 +1,35 @@
+-- Numbers existing history in send order, 100 rooms at a time, and points each room's last_message_seq at
+-- its highest number. Each batch commits on its own (executeInTransaction=false), so row locks are short
+-- and the work already done survives a restart: rows still without a room_seq continue from the room's max.
+
+DO $$
+DECLARE
+    batch_start BIGINT := 0;
+    max_id BIGINT;
+BEGIN
+    SELECT COALESCE(MAX(id), 0) INTO max_id FROM chat_rooms;
+    WHILE batch_start < max_id LOOP
+        WITH numbered AS (
+            SELECT id, chat_room_id, ROW_NUMBER() OVER (PARTITION BY chat_room_id ORDER BY created_at, id) AS seq
+            FROM messages
+            WHERE chat_room_id > batch_start AND chat_room_id <= batch_start + 100 AND room_seq IS NULL
+        ), numbered_before AS (
+            SELECT chat_room_id, MAX(room_seq) AS seq
+            FROM messages
+            WHERE chat_room_id > batch_start AND chat_room_id <= batch_start + 100 AND room_seq IS NOT NULL
+            GROUP BY chat_room_id
+        )
+        UPDATE messages m
+        SET room_seq = COALESCE(numbered_before.seq, 0) + numbered.seq
+        FROM numbered LEFT JOIN numbered_before ON numbered_before.chat_room_id = numbered.chat_room_id
+        WHERE m.id = numbered.id;
+
+        UPDATE chat_rooms cr
+        SET last_message_seq = COALESCE((SELECT MAX(m.room_seq) FROM messages m WHERE m.chat_room_id = cr.id), 0)
+        WHERE cr.id > batch_start AND cr.id <= batch_start + 100;
+
+        batch_start := batch_start + 100;
+        COMMIT;
+    END LOOP;
+END
+$$;
@@ -0,0 +1,4 @@
+-- Serves resync (chat_room_id, room_seq > N) and guards against a sequence being handed out twice.
+-- Built without blocking writes, so this script runs outside a transaction.
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS idx_messages_room_seq ON messages (chat_room_id, room_seq);
@@ -0,0 +1,6 @@
+-- Per-room message sequence numbers, so a reconnecting client can ask for "everything after N" per room.
+-- Existing history is numbered by V3_1 and the (chat_room_id, room_seq) index is built by V3_2, both
+-- outside a transaction; this script only adds the columns, which is a catalog change.
+
+ALTER TABLE chat_rooms ADD COLUMN IF NOT EXISTS last_message_seq BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS room_seq BIGINT;
@@ -0,0 +1,15 @@
+-- Denormalized pointer to each room's newest message, set with every seq claim
+-- (RoomSequenceAllocator.claim) and checked by LastMessageRepair. No index on these columns: the
+-- chat list reaches rooms through chat_room_members, and every send updates them, which an index
+-- would turn into a non-HOT update.
+
+ALTER TABLE chat_rooms ADD COLUMN IF NOT EXISTS last_message_id BIGINT;
+ALTER TABLE chat_rooms ADD COLUMN IF NOT EXISTS last_message_at TIMESTAMP;
+ALTER TABLE chat_rooms ADD COLUMN IF NOT EXISTS last_message_preview VARCHAR(200);
+
+UPDATE chat_rooms cr
+SET last_message_id = lm.id, last_message_at = lm.created_at, last_message_preview = LEFT(lm.content, 200)
+FROM (SELECT DISTINCT ON (chat_room_id) chat_room_id, id, created_at, content
+      FROM messages
+      ORDER BY chat_room_id, room_seq DESC) lm
+WHERE lm.chat_room_id = cr.id;
@@ -0,0 +1,17 @@
+-- Fills content_tsv for rows written before V5's trigger, 10000 ids at a time. Each batch commits on its
+-- own (executeInTransaction=false), so row locks are short and the work already done survives a restart.
+
+DO $$
+DECLARE
+    batch_start BIGINT := 0;
+    max_id BIGINT;
+BEGIN
+    SELECT COALESCE(MAX(id), 0) INTO max_id FROM messages WHERE content_tsv IS NULL;
+    WHILE batch_start < max_id LOOP
+        UPDATE messages SET content_tsv = to_tsvector('simple', COALESCE(content, ''))
+        WHERE id > batch_start AND id <= batch_start + 10000 AND content_tsv IS NULL;
+        batch_start := batch_start + 10000;
+        COMMIT;
+    END LOOP;
+END
+$$;
@@ -0,0 +1,3 @@
+-- Built without blocking writes, so this script runs outside a transaction
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_messages_content_tsv ON messages USING GIN (content_tsv);
@@ -0,0 +1,9 @@
+-- Built without blocking writes, so this script runs outside a transaction
+
+-- Substring matches on usernames: trigram GIN index (pg_trgm, V6)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_username_trgm ON users USING gin (lower(username) gin_trgm_ops);
+
+-- Prefix matches (LIKE 'ab%'), used for short queries and for emails, where a substring such as
+-- "gmail" would match most of the table. text_pattern_ops makes LIKE prefixes indexable under any collation.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_username_prefix ON users (lower(username) text_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_prefix ON users (lower(email) text_pattern_ops);
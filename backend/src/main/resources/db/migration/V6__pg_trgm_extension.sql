@@ -0,0 +1,6 @@
+-- User search (UserRepository.searchUsers*) matches case-insensitively on lower(username) and lower(email).
+-- The indexes themselves are built by V6_1, outside a transaction.
+
+-- Substring matches on usernames need the pg_trgm contrib extension, which ships with PostgreSQL and is
+-- allow-listed on the common managed services.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
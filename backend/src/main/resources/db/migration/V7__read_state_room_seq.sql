@@ -0,0 +1,13 @@
+-- Read watermarks move from message ids to per-room sequence numbers. Ids come from messages_seq in
+-- per-node blocks, so a message sent later can carry a smaller id; room_seq follows send order in the room.
+
+ALTER TABLE chat_room_read_states ADD COLUMN IF NOT EXISTS last_read_seq BIGINT NOT NULL DEFAULT 0;
+
+-- Ids and room_seq were both assigned in send order until now, so the newest message at or below the old
+-- id watermark marks the same point
+UPDATE chat_room_read_states rs
+SET last_read_seq = COALESCE((SELECT MAX(m.room_seq) FROM messages m
+                              WHERE m.chat_room_id = rs.chat_room_id AND m.id <= rs.last_read_message_id), 0)
+WHERE rs.last_read_message_id > 0;
+
+ALTER TABLE chat_room_read_states DROP COLUMN last_read_message_id;
@@ -0,0 +1,12 @@
+-- Unread counts now scan (chat_room_id, room_seq > watermark) and filter on sender_id; carrying sender_id
+-- in the room_seq index keeps them index-only, as idx_messages_room_id_sender (V2) did for the id
+-- watermark. That index has no readers left. Built without blocking writes, so this script runs outside a
+-- transaction; the new unique index exists before the old one goes, so the (chat_room_id, room_seq)
+-- guard never lapses.
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS idx_messages_room_seq_sender
+    ON messages (chat_room_id, room_seq) INCLUDE (sender_id);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_messages_room_seq;
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_messages_room_id_sender;
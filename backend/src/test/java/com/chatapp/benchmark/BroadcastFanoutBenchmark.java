@@ -0,0 +1,117 @@
+package com.chatapp.benchmark;
+
+import com.chatapp.dto.MessageDto;
+import com.chatapp.model.ChatRoom;
+import com.chatapp.model.Message;
+import com.chatapp.model.User;
+import com.chatapp.service.BroadcastPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// One room broadcast through a real SimpleBroker with N subscriber sessions, each outbound frame
+// STOMP-encoded as StompSubProtocolHandler would. Compares converting the Message entity in
+// convertAndSend against BroadcastPublisher's pre-serialized MessageDto.
+// Allocation per delivered frame = gc.alloc.rate.norm / subscribers:
+//   mvn -Pbenchmark test-compile exec:exec -Djmh.args="BroadcastFanoutBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BroadcastFanoutBenchmark {
+
+    private static final String DESTINATION = "/topic/chatroom/1";
+
+    @Param({"10", "1000", "10000"})
+    public int subscribers;
+
+    private SimpleBrokerMessageHandler broker;
+    private SimpMessagingTemplate messagingTemplate;
+    private BroadcastPublisher broadcastPublisher;
+    private Message message;
+    private Blackhole blackhole;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        StompEncoder encoder = new StompEncoder();
+
+        ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+        ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        clientOutbound.subscribe(outbound -> {
+            SimpMessageHeaderAccessor simp = SimpMessageHeaderAccessor.wrap(outbound);
+            StompHeaderAccessor stomp = StompHeaderAccessor.create(StompCommand.MESSAGE);
+            stomp.setSubscriptionId(simp.getSubscriptionId());
+            stomp.setDestination(simp.getDestination());
+            stomp.setMessageId(simp.getSessionId());
+            stomp.setContentType(simp.getContentType());
+            this.blackhole.consume(encoder.encode(stomp.getMessageHeaders(), (byte[]) outbound.getPayload()));
+        });
+
+        broker = new SimpleBrokerMessageHandler(clientInbound, clientOutbound, brokerChannel, List.of("/topic"));
+        broker.start();
+        for (int i = 0; i < subscribers; i++) {
+            SimpMessageHeaderAccessor subscribe = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+            subscribe.setSessionId("session-" + i);
+            subscribe.setSubscriptionId("sub-0");
+            subscribe.setDestination(DESTINATION);
+            broker.handleMessage(MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()));
+        }
+
+        messagingTemplate = new SimpMessagingTemplate(brokerChannel);
+        messagingTemplate.setMessageConverter(converter(objectMapper));
+        broadcastPublisher = new BroadcastPublisher();
+        ReflectionTestUtils.setField(broadcastPublisher, "messagingTemplate", messagingTemplate);
+        ReflectionTestUtils.setField(broadcastPublisher, "objectMapper", objectMapper);
+
+        User sender = new User("alice", "alice@example.com", "hash");
+        sender.setId(7L);
+        ChatRoom chatRoom = new ChatRoom("General", ChatRoom.ChatRoomType.GROUP, sender);
+        chatRoom.setId(1L);
+        chatRoom.getMembers().add(sender);
+        message = new Message("See you at the stand-up in ten minutes", sender, chatRoom);
+        message.setId(42L);
+        message.setCreatedAt(LocalDateTime.now());
+    }
+
+    @TearDown
+    public void tearDown() {
+        broker.stop();
+    }
+
+    private static MappingJackson2MessageConverter converter(ObjectMapper objectMapper) {
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        return converter;
+    }
+
+    @Benchmark
+    public void entityConvertAndSend() {
+        messagingTemplate.convertAndSend(DESTINATION, message);
+    }
+
+    @Benchmark
+    public void preSerializedDto() {
+        broadcastPublisher.publish(DESTINATION, MessageDto.of(message));
+    }
+}
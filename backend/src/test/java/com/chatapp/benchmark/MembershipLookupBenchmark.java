@@ -0,0 +1,81 @@
+package com.chatapp.benchmark;
+
+import com.chatapp.repository.ChatRoomRepository;
+import com.chatapp.service.ClusterEvents;
+import com.chatapp.service.RoomMembershipCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+// Membership check as done per SUBSCRIBE/SEND/typing frame. Time per lookup should stay flat as
+// rooms grow (O(1)) and -prof gc should report ~0 B/op for the cache, against a Map<Long, Set<Long>>
+// of boxed ids. Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="MembershipLookupBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MembershipLookupBenchmark {
+
+    private static final int ROOMS = 10_000;
+
+    @Param({"10", "1000", "100000"})
+    public int membersPerRoom;
+
+    private RoomMembershipCache cache;
+    private Map<Long, Set<Long>> boxed;
+    private long[] roomIds;
+    private long[] userIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        cache = new RoomMembershipCache();
+        ReflectionTestUtils.setField(cache, "maxRooms", ROOMS);
+        ReflectionTestUtils.setField(cache, "chatRoomRepository", Mockito.mock(ChatRoomRepository.class));
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "clusterEvents", new ClusterEvents());
+        ReflectionTestUtils.invokeMethod(cache, "init");
+        boxed = new HashMap<>();
+
+        // Large rooms are few; keep total memberships around a million
+        int rooms = (int) Math.min(ROOMS, 1_000_000L / membersPerRoom);
+        for (long roomId = 1_000; roomId < 1_000 + rooms; roomId++) {
+            long firstUser = roomId * 7;
+            List<Long> members = LongStream.range(firstUser, firstUser + membersPerRoom).boxed().toList();
+            cache.putRoom(roomId, members);
+            boxed.put(roomId, members.stream().collect(Collectors.toSet()));
+        }
+
+        roomIds = new long[1024];
+        userIds = new long[1024];
+        for (int i = 0; i < roomIds.length; i++) {
+            roomIds[i] = 1_000 + (i * 31L) % rooms;
+            // Every other lookup is a non-member
+            userIds[i] = roomIds[i] * 7 + (i % 2 == 0 ? i % membersPerRoom : membersPerRoom + i);
+        }
+    }
+
+    @Benchmark
+    public boolean membershipCache() {
+        int i = next++ & 1023;
+        return cache.isMember(roomIds[i], userIds[i]);
+    }
+
+    @Benchmark
+    public boolean boxedMap() {
+        int i = next++ & 1023;
+        Set<Long> members = boxed.get(roomIds[i]);
+        return members != null && members.contains(userIds[i]);
+    }
+}
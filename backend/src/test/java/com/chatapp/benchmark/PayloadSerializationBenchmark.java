@@ -0,0 +1,105 @@
+package com.chatapp.benchmark;
+
+import com.chatapp.dto.ChatRoomDto;
+import com.chatapp.dto.MessageDto;
+import com.chatapp.dto.UserDto;
+import com.chatapp.model.ChatRoom;
+import com.chatapp.model.Message;
+import com.chatapp.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// A 50-message history page and a 20-room chat list, serialized as the JPA entities the endpoints
+// used to return against the wire DTOs. Payload sizes are printed once at setup.
+// Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="PayloadSerializationBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadSerializationBenchmark {
+
+    @Param({"10"})
+    public int membersPerRoom;
+
+    private ObjectMapper objectMapper;
+    private List<Message> messages;
+    private List<ChatRoom> rooms;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        rooms = new ArrayList<>();
+        long userId = 1;
+        for (long roomId = 1; roomId <= 20; roomId++) {
+            User creator = user(userId++);
+            ChatRoom room = new ChatRoom("Room " + roomId, ChatRoom.ChatRoomType.GROUP, creator);
+            room.setId(roomId);
+            room.setCreatedAt(LocalDateTime.now());
+            room.getMembers().add(creator);
+            for (int i = 1; i < membersPerRoom; i++) {
+                room.getMembers().add(user(userId++));
+            }
+            rooms.add(room);
+        }
+
+        ChatRoom room = rooms.get(0);
+        List<User> members = new ArrayList<>(room.getMembers());
+        messages = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            Message message = new Message("Message number " + id + " in a typical chat", members.get((int) (id % members.size())), room);
+            message.setId(id);
+            message.setCreatedAt(LocalDateTime.now());
+            message.setDeliveredAt(LocalDateTime.now());
+            message.setIsDelivered(true);
+            messages.add(message);
+        }
+
+        System.out.printf("%nPayload bytes: history %d -> %d, room list %d -> %d%n",
+                historyEntities().length, historyDtos().length, roomListEntities().length, roomListDtos().length);
+    }
+
+    private static User user(long id) {
+        User user = new User("user" + id, "user" + id + "@example.com", "$2a$10$hash");
+        user.setId(id);
+        user.setIsOnline(id % 3 == 0);
+        user.setLastSeen(LocalDateTime.now());
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    @Benchmark
+    public byte[] historyEntities() throws Exception {
+        return objectMapper.writeValueAsBytes(messages);
+    }
+
+    @Benchmark
+    public byte[] historyDtos() throws Exception {
+        return objectMapper.writeValueAsBytes(messages.stream().map(MessageDto::withReadState).toList());
+    }
+
+    @Benchmark
+    public byte[] roomListEntities() throws Exception {
+        return objectMapper.writeValueAsBytes(rooms);
+    }
+
+    @Benchmark
+    public byte[] roomListDtos() throws Exception {
+        return objectMapper.writeValueAsBytes(rooms.stream().map(ChatRoomDto::of).toList());
+    }
+
+    @Benchmark
+    public byte[] userListDtos() throws Exception {
+        return objectMapper.writeValueAsBytes(rooms.get(0).getMembers().stream().map(UserDto::of).toList());
+    }
+}
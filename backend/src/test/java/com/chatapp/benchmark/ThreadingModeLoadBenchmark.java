@@ -0,0 +1,143 @@
+package com.chatapp.benchmark;
+
+import com.chatapp.ChatApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Load test of the REST hot paths with the app on platform threads against virtual threads
+// (spring.threads.virtual.enabled), both against PostgreSQL with the default 20-connection pool.
+// Each JMH thread is one client issuing requests back to back; SampleTime reports throughput as the
+// sample count plus p50/p99/p99.9 latency. Responses are tallied by status and printed per trial; a
+// shed request (503) is fast and would flatter a mode that sheds load, so any non-200 fails the trial
+// instead of being scored. Virtual mode needs Java 21 and Docker for the database.
+// Raise the client count past Tomcat's 200 threads with -t, e.g.:
+//   mvn -Pbenchmark test-compile exec:exec -Djmh.args="ThreadingModeLoadBenchmark -t 400"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(200)
+@Fork(1)
+public class ThreadingModeLoadBenchmark {
+
+    private static final int ROOMS = 20;
+    private static final int MESSAGES_PER_ROOM = 500;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private String token;
+    private long[] roomIds;
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+        postgres.start();
+        context = new SpringApplicationBuilder(ChatApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.threads.virtual.enabled=" + "virtual".equals(mode),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.com.chatapp=WARN",
+                "--logging.level.org.springframework.security=WARN");
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        post("/api/auth/signup", "{\"username\":\"loadtest\",\"email\":\"loadtest@example.com\",\"password\":\"secret123\"}");
+        token = objectMapper.readTree(post("/api/auth/signin", "{\"username\":\"loadtest\",\"password\":\"secret123\"}"))
+                .get("accessToken").asText();
+
+        roomIds = new long[ROOMS];
+        for (int i = 0; i < ROOMS; i++) {
+            JsonNode room = objectMapper.readTree(post("/api/chatrooms", "{\"name\":\"Room " + i + "\",\"type\":\"GROUP\",\"memberIds\":[]}"));
+            roomIds[i] = room.get("id").asLong();
+        }
+        // History straight into the table, with ids far above what the app's sequence blocks will reach
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        for (int i = 0; i < ROOMS; i++) {
+            jdbc.update("INSERT INTO messages (id, content, created_at, sender_id, chat_room_id, type, room_seq) "
+                    + "SELECT 10000000 + ? * 10000 + g, 'Message ' || g, now() - (? - g) * interval '1 second', "
+                    + "u.id, ?, 'CHAT', g FROM generate_series(1, ?) g, users u WHERE u.username = 'loadtest'",
+                    i, MESSAGES_PER_ROOM, roomIds[i], MESSAGES_PER_ROOM);
+            jdbc.update("UPDATE chat_rooms SET last_message_seq = ? WHERE id = ?", MESSAGES_PER_ROOM, roomIds[i]);
+        }
+        jdbc.execute("ANALYZE");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+        Map<Integer, Long> mix = new TreeMap<>();
+        statuses.forEach((status, count) -> mix.put(status, count.sum()));
+        System.out.println("Status mix (" + mode + "): " + mix);
+        long failed = mix.entrySet().stream().filter(entry -> entry.getKey() != 200).mapToLong(Map.Entry::getValue).sum();
+        if (failed > 0) {
+            throw new IllegalStateException(failed + " non-200 responses in " + mode + " mode " + mix
+                    + "; latency and throughput for this trial are not comparable");
+        }
+    }
+
+    private String post(String path, String json) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private int get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        return status;
+    }
+
+    @Benchmark
+    public int chatList() throws Exception {
+        return get("/api/chatrooms");
+    }
+
+    // An older page, so it reads the database rather than the recent-message cache
+    @Benchmark
+    public int historyPage() throws Exception {
+        int room = ThreadLocalRandom.current().nextInt(ROOMS);
+        long before = 10_000_000L + room * 10_000L + 200 + ThreadLocalRandom.current().nextInt(MESSAGES_PER_ROOM - 200);
+        return get("/api/chatrooms/" + roomIds[room] + "/messages?before=" + before + "&limit=50");
+    }
+}
@@ -0,0 +1,81 @@
+package com.chatapp.benchmark;
+
+import com.chatapp.ChatApplication;
+import com.chatapp.model.User;
+import com.chatapp.repository.UserRepository;
+import com.chatapp.security.CustomUserDetailsService;
+import com.chatapp.security.UserPrincipal;
+import com.chatapp.service.UserService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// User search as typed into CreateChatModal, over 2M generated users on PostgreSQL (needs Docker). SampleTime
+// mode reports p50/p99/p99.9 per query; "legacy" is the old unbounded '%q%' scan on username and email.
+// Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="UserSearchBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserSearchBenchmark {
+
+    @Param({"2000000"})
+    public int users;
+
+    // Short prefix, exact name, common substring, rare substring, email prefix
+    @Param({"us", "user1234", "r12", "98765", "mail4242"})
+    public String query;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private JdbcTemplate jdbc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+        postgres.start();
+        context = new SpringApplicationBuilder(ChatApplication.class).run(
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--server.port=0");
+        jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("INSERT INTO users (id, username, email, password) "
+                + "SELECT g, 'user' || g, 'mail' || g || '@example.com', 'x' FROM generate_series(1, ?) g", users);
+        jdbc.execute("ANALYZE users");
+
+        CustomUserDetailsService userDetailsService = Mockito.mock(CustomUserDetailsService.class);
+        Mockito.when(userDetailsService.loadCachedPrincipal("user1"))
+                .thenReturn(new UserPrincipal(1L, "user1", "mail1@example.com", "x"));
+        userService = new UserService();
+        ReflectionTestUtils.setField(userService, "userRepository", context.getBean(UserRepository.class));
+        ReflectionTestUtils.setField(userService, "userDetailsService", userDetailsService);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public List<User> search() {
+        return userService.searchUsers(query, null, "user1");
+    }
+
+    @Benchmark
+    public List<Long> legacy() {
+        return jdbc.queryForList("SELECT id FROM users WHERE username LIKE ? OR email LIKE ?", Long.class,
+                "%" + query + "%", "%" + query + "%");
+    }
+}
@@ -0,0 +1,106 @@
+package com.chatapp.benchmark;
+
+import com.chatapp.dto.MessageDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.sockjs.frame.Jackson2SockJsMessageCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+// One outbound chat MESSAGE frame as each transport puts it on the wire: the plain STOMP frame on
+// /ws-native, the same frame JSON-escaped into a SockJS "a[...]" array on /ws, and the native frame
+// through a permessage-deflate style stream (shared window, sync flush per frame, as browsers negotiate
+// by default). Bytes per frame are printed once at setup; the scores are CPU per frame.
+// Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="WireFormatBenchmark -prof gc"
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final int FRAMES = 64;
+
+    private final StompEncoder encoder = new StompEncoder();
+    private final Jackson2SockJsMessageCodec sockJsCodec = new Jackson2SockJsMessageCodec();
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final byte[] deflateBuffer = new byte[8192];
+
+    private Map<String, Object>[] headers;
+    private byte[][] payloads;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        headers = new Map[FRAMES];
+        payloads = new byte[FRAMES][];
+        for (int i = 0; i < FRAMES; i++) {
+            MessageDto message = new MessageDto(100_000L + i, 5_000L + i,
+                    "Message " + i + ": are we still on for the \"review\" at 3pm?\nBring the notes",
+                    "CHAT", LocalDateTime.now(), 42L, new MessageDto.Sender(7L + i % 5, "user" + (7 + i % 5)));
+            payloads[i] = objectMapper.writeValueAsBytes(message);
+            StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+            accessor.setDestination("/topic/chatroom/42");
+            accessor.setSubscriptionId("sub-3");
+            accessor.setMessageId("f1c0a2b3-" + i);
+            accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            headers[i] = accessor.getMessageHeaders();
+        }
+
+        long nativeBytes = 0, sockJsBytes = 0, deflatedBytes = 0;
+        for (int i = 0; i < FRAMES; i++) {
+            nativeBytes += nativeFrame().length;
+            sockJsBytes += sockJsFrame().length;
+            deflatedBytes += nativeDeflated();
+        }
+        System.out.printf("%nBytes per frame: native %d, SockJS %d, native + permessage-deflate %d%n",
+                nativeBytes / FRAMES, sockJsBytes / FRAMES, deflatedBytes / FRAMES);
+    }
+
+    private int advance() {
+        int index = next;
+        next = (next + 1) % FRAMES;
+        return index;
+    }
+
+    @Benchmark
+    public byte[] nativeFrame() {
+        int i = advance();
+        return encoder.encode(headers[i], payloads[i]);
+    }
+
+    @Benchmark
+    public byte[] sockJsFrame() {
+        int i = advance();
+        String frame = new String(encoder.encode(headers[i], payloads[i]), StandardCharsets.UTF_8);
+        return sockJsCodec.encode(frame).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int nativeDeflated() {
+        int i = advance();
+        deflater.setInput(encoder.encode(headers[i], payloads[i]));
+        int length = 0;
+        int written;
+        do {
+            written = deflater.deflate(deflateBuffer, 0, deflateBuffer.length, Deflater.SYNC_FLUSH);
+            length += written;
+        } while (written == deflateBuffer.length);
+        // permessage-deflate strips the trailing 00 00 ff ff of each flush
+        return length - 4;
+    }
+}
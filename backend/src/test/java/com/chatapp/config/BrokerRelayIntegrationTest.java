@@ -0,0 +1,271 @@
+package com.chatapp.config;
+
+import com.chatapp.ChatApplication;
+import com.chatapp.dto.ChatRoomRequest;
+import com.chatapp.dto.MessageDto;
+import com.chatapp.dto.MessageRequest;
+import com.chatapp.model.User;
+import com.chatapp.repository.UserRepository;
+import com.chatapp.security.CustomUserDetailsService;
+import com.chatapp.security.JwtUtils;
+import com.chatapp.security.UserPrincipal;
+import com.chatapp.service.ChatRoomService;
+import com.chatapp.service.ChatService;
+import com.chatapp.service.MessageService;
+import com.chatapp.service.RoomMembershipCache;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+// Two application nodes in one JVM sharing one H2 database and an embedded Artemis STOMP broker through
+// the relay mode. alice and bob share a room; carol starts outside it.
+class BrokerRelayIntegrationTest {
+
+    private static EmbeddedActiveMQ broker;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static Long roomId;
+    private static Long carolId;
+
+    @BeforeAll
+    static void startCluster() throws Exception {
+        int stompPort = freePort();
+        broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(new ConfigurationImpl()
+                .setPersistenceEnabled(false)
+                .setSecurityEnabled(false)
+                .addAcceptorConfiguration("stomp", "tcp://localhost:" + stompPort + "?protocols=STOMP"));
+        broker.start();
+
+        // nodeA creates the schema, nodeB uses it
+        nodeA = startNode("create-drop", stompPort);
+        nodeB = startNode("none", stompPort);
+
+        UserRepository users = nodeA.getBean(UserRepository.class);
+        User alice = users.save(new User("alice", "alice@example.com", "x"));
+        User bob = users.save(new User("bob", "bob@example.com", "x"));
+        carolId = users.save(new User("carol", "carol@example.com", "x")).getId();
+        ChatRoomRequest request = new ChatRoomRequest();
+        request.setName("relay");
+        request.setType("GROUP");
+        request.setMemberIds(List.of(bob.getId()));
+        roomId = nodeA.getBean(ChatRoomService.class).createChatRoom(request, alice.getUsername()).getId();
+
+        // Cluster events need both relay system sessions up
+        assertThat(eventually(() -> nodeA.getBean(StompBrokerRelayMessageHandler.class).isBrokerAvailable()
+                && nodeB.getBean(StompBrokerRelayMessageHandler.class).isBrokerAvailable())).isTrue();
+    }
+
+    @AfterAll
+    static void stopCluster() throws Exception {
+        if (nodeA != null) nodeA.close();
+        if (nodeB != null) nodeB.close();
+        if (broker != null) broker.stop();
+    }
+
+    private static ConfigurableApplicationContext startNode(String ddlAuto, int stompPort) {
+        return new SpringApplicationBuilder(ChatApplication.class)
+                // Command-line arguments, so they take precedence over application.yml
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:relay-cluster;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--chatapp.websocket.broker.mode=relay",
+                        "--chatapp.websocket.broker.relay.host=localhost",
+                        "--chatapp.websocket.broker.relay.port=" + stompPort,
+                        "--logging.level.com.chatapp=INFO",
+                        "--logging.level.org.springframework.security=INFO");
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static StompSession connect(ConfigurableApplicationContext node, String username) throws Exception {
+        UserPrincipal principal = node.getBean(CustomUserDetailsService.class).loadCachedPrincipal(username);
+        String token = node.getBean(JwtUtils.class).generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + token);
+
+        int port = ((WebServerApplicationContext) node).getWebServer().getPort();
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new StringMessageConverter());
+        return client.connectAsync("ws://localhost:" + port + "/ws/websocket", new WebSocketHttpHeaders(),
+                connectHeaders, new StompSessionHandlerAdapter() {}).get(10, TimeUnit.SECONDS);
+    }
+
+    private static BlockingQueue<String> subscribe(StompSession session, String destination) {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        session.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((String) payload);
+            }
+        });
+        return received;
+    }
+
+    // The SUBSCRIBE reaches the broker asynchronously, so publish until the first frame arrives
+    private static String publishUntilReceived(ConfigurableApplicationContext node, String destination,
+                                               String payload, BlockingQueue<String> received) throws Exception {
+        SimpMessagingTemplate template = node.getBean(SimpMessagingTemplate.class);
+        for (int attempt = 0; attempt < 50; attempt++) {
+            template.convertAndSend(destination, payload);
+            String frame = received.poll(200, TimeUnit.MILLISECONDS);
+            if (frame != null) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    // Skips warm-up frames that may still be in flight
+    private static boolean awaitFrame(BlockingQueue<String> received, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            String frame = received.poll(100, TimeUnit.MILLISECONDS);
+            if (expected.equals(frame)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean eventually(BooleanSupplier condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return false;
+    }
+
+    @Test
+    void membershipChange_OnOneNode_ShouldReachTheOtherNodesCache() throws Exception {
+        // Given
+        RoomMembershipCache cacheB = nodeB.getBean(RoomMembershipCache.class);
+        ChatRoomService chatRoomServiceA = nodeA.getBean(ChatRoomService.class);
+        // As in a request: members load lazily, and the event is sent after commit
+        TransactionTemplate transactionA = new TransactionTemplate(nodeA.getBean(PlatformTransactionManager.class));
+        assertThat(cacheB.isMember(roomId, carolId)).isFalse();
+
+        // When
+        transactionA.executeWithoutResult(status -> chatRoomServiceA.joinChatRoom(roomId, "carol"));
+
+        // Then
+        assertThat(eventually(() -> cacheB.isMember(roomId, carolId))).isTrue();
+
+        // When
+        transactionA.executeWithoutResult(status -> chatRoomServiceA.leaveChatRoom(roomId, "carol"));
+
+        // Then
+        assertThat(eventually(() -> !cacheB.isMember(roomId, carolId))).isTrue();
+    }
+
+    @Test
+    void messageSentOnOneNode_ShouldShowInTheOtherNodesCachedHistory() throws Exception {
+        // Given
+        ChatService chatServiceA = nodeA.getBean(ChatService.class);
+        MessageService messageServiceB = nodeB.getBean(MessageService.class);
+        TransactionTemplate transactionB = new TransactionTemplate(nodeB.getBean(PlatformTransactionManager.class));
+        chatServiceA.sendMessage(messageRequest("first"), "alice");
+        // Seeds node B's buffer for the room
+        List<MessageDto> seeded = transactionB.execute(status -> messageServiceB.getChatRoomMessages(roomId, null, null, 20, "bob"));
+        assertThat(seeded).extracting(MessageDto::content).endsWith("first");
+
+        // When
+        chatServiceA.sendMessage(messageRequest("second"), "alice");
+
+        // Then
+        assertThat(eventually(() -> {
+            List<MessageDto> page = transactionB.execute(status -> messageServiceB.getChatRoomMessages(roomId, null, null, 20, "bob"));
+            return !page.isEmpty() && "second".equals(page.get(page.size() - 1).content());
+        })).isTrue();
+    }
+
+    private static MessageRequest messageRequest(String content) {
+        MessageRequest request = new MessageRequest();
+        request.setChatRoomId(roomId);
+        request.setContent(content);
+        return request;
+    }
+
+    @Test
+    void topicMessage_PublishedOnOneNode_ShouldReachSubscriberOnOtherNode() throws Exception {
+        // Given
+        StompSession session = connect(nodeA, "alice");
+        BlockingQueue<String> received = subscribe(session, "/topic/chatroom/" + roomId + "/typing");
+
+        // When
+        String frame = publishUntilReceived(nodeB, "/topic/chatroom/" + roomId + "/typing", "hello from B", received);
+
+        // Then
+        assertThat(frame).isEqualTo("hello from B");
+        session.disconnect();
+    }
+
+    @Test
+    void topicMessage_ShouldFanOutToSubscribersOnEveryNode() throws Exception {
+        // Given
+        String destination = "/topic/chatroom/" + roomId + "/status";
+        StompSession sessionA = connect(nodeA, "alice");
+        StompSession sessionB = connect(nodeB, "bob");
+        BlockingQueue<String> receivedA = subscribe(sessionA, destination);
+        BlockingQueue<String> receivedB = subscribe(sessionB, destination);
+        assertThat(publishUntilReceived(nodeA, destination, "warm-up", receivedA)).isEqualTo("warm-up");
+        assertThat(publishUntilReceived(nodeA, destination, "warm-up", receivedB)).isEqualTo("warm-up");
+
+        // When
+        nodeA.getBean(SimpMessagingTemplate.class).convertAndSend(destination, "to everyone");
+
+        // Then
+        assertThat(awaitFrame(receivedA, "to everyone")).isTrue();
+        assertThat(awaitFrame(receivedB, "to everyone")).isTrue();
+        sessionA.disconnect();
+        sessionB.disconnect();
+    }
+}
@@ -0,0 +1,202 @@
+package com.chatapp.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OutboundDeliveryInterceptorTest {
+
+    private OutboundDeliveryInterceptor interceptor;
+    private SimpleMeterRegistry meterRegistry;
+    private RecordingChannel channel;
+    private final MessageHandler handler = mock(MessageHandler.class);
+
+    // Stands in for clientOutboundChannel: runs the interceptor and records what reaches the executor
+    private class RecordingChannel implements MessageChannel {
+        final List<Message<?>> executed = new ArrayList<>();
+
+        @Override
+        public boolean send(Message<?> message, long timeout) {
+            Message<?> passed = interceptor.preSend(message, this);
+            if (passed != null) {
+                executed.add(passed);
+            }
+            return passed != null;
+        }
+
+        void finish(Message<?> message) {
+            interceptor.afterMessageHandled(message, this, handler, null);
+        }
+
+        List<String> destinations() {
+            return executed.stream().map(m -> SimpMessageHeaderAccessor.getDestination(m.getHeaders())).toList();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new OutboundDeliveryInterceptor();
+        ReflectionTestUtils.setField(interceptor, "typingDropDepth", 2);
+        ReflectionTestUtils.setField(interceptor, "presenceDropDepth", 3);
+        ReflectionTestUtils.setField(interceptor, "readStatusDropDepth", 3);
+        ReflectionTestUtils.setField(interceptor, "maxDepth", 4);
+        ReflectionTestUtils.setField(interceptor, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.invokeMethod(interceptor, "init");
+        channel = new RecordingChannel();
+
+        SimpMessageHeaderAccessor connectAck = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT_ACK);
+        connectAck.setSessionId("s1");
+        interceptor.onSessionConnected(new SessionConnectedEvent(this,
+                MessageBuilder.createMessage(new byte[0], connectAck.getMessageHeaders())));
+    }
+
+    private Message<byte[]> frame(String sessionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private double dropped(String type) {
+        return meterRegistry.get("chatapp.websocket.outbound.dropped").tag("type", type).counter().count();
+    }
+
+    private double queued(String type) {
+        return meterRegistry.get("chatapp.websocket.outbound.queued").tag("type", type).gauge().value();
+    }
+
+    @Test
+    void framesForOneSession_ShouldReachTheExecutorOneAtATimeInOrder() {
+        // When
+        channel.send(frame("s1", "/topic/chatroom/1"));
+        channel.send(frame("s1", "/topic/chatroom/2"));
+        channel.send(frame("s1", "/topic/chatroom/3"));
+
+        // Then
+        assertThat(channel.destinations()).containsExactly("/topic/chatroom/1");
+        assertThat(queued("message")).isEqualTo(2.0);
+
+        // When
+        channel.finish(channel.executed.get(0));
+        channel.finish(channel.executed.get(1));
+
+        // Then
+        assertThat(channel.destinations()).containsExactly("/topic/chatroom/1", "/topic/chatroom/2", "/topic/chatroom/3");
+        assertThat(queued("message")).isZero();
+    }
+
+    @Test
+    void unregisteredSessions_ShouldPassStraightThrough() {
+        // When
+        channel.send(frame("other", "/topic/chatroom/1"));
+        channel.send(frame("other", "/topic/chatroom/2"));
+
+        // Then
+        assertThat(channel.executed).hasSize(2);
+    }
+
+    @Test
+    void backlog_ShouldDropTypingBeforePresenceAndNeverChatMessages() {
+        // Given
+        channel.send(frame("s1", "/topic/chatroom/1"));
+
+        // When
+        channel.send(frame("s1", "/topic/chatroom/1"));
+        channel.send(frame("s1", "/topic/chatroom/1/typing"));
+        channel.send(frame("s1", "/topic/chatroom/1/typing"));
+        channel.send(frame("s1", "/user/queue/user-status"));
+        channel.send(frame("s1", "/topic/chatroom/1"));
+
+        // Then
+        assertThat(dropped("typing")).isEqualTo(1.0);
+        assertThat(dropped("presence")).isZero();
+        assertThat(dropped("message")).isZero();
+        assertThat(interceptor.maxSessionDepth()).isEqualTo(4);
+    }
+
+    @Test
+    void fullQueue_ShouldEvictDroppableFramesThenCloseTheSession() {
+        // Given
+        channel.send(frame("s1", "/topic/chatroom/1"));
+        channel.send(frame("s1", "/topic/chatroom/1/typing"));
+        channel.send(frame("s1", "/topic/chatroom/1"));
+        channel.send(frame("s1", "/topic/chatroom/1"));
+        channel.send(frame("s1", "/topic/chatroom/1"));
+
+        // When
+        channel.send(frame("s1", "/topic/chatroom/1"));
+
+        // Then
+        assertThat(dropped("typing")).isEqualTo(1.0);
+        assertThat(meterRegistry.get("chatapp.websocket.outbound.disconnects").counter().count()).isZero();
+
+        // When
+        channel.send(frame("s1", "/topic/chatroom/1"));
+        channel.send(frame("s1", "/topic/chatroom/1"));
+        channel.finish(channel.executed.get(0));
+
+        // Then
+        assertThat(meterRegistry.get("chatapp.websocket.outbound.disconnects").counter().count()).isEqualTo(1.0);
+        assertThat(dropped("message")).isEqualTo(6.0);
+        Message<?> error = channel.executed.get(1);
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(error);
+        assertThat(accessor.getCommand()).isEqualTo(StompCommand.ERROR);
+        assertThat(accessor.getMessage()).isEqualTo(OutboundDeliveryInterceptor.OVERFLOW_ERROR);
+        assertThat(accessor.getSessionId()).isEqualTo("s1");
+    }
+
+    @Test
+    void disconnect_ShouldDiscardTheBacklog() {
+        // Given
+        channel.send(frame("s1", "/topic/chatroom/1"));
+        channel.send(frame("s1", "/topic/chatroom/1"));
+
+        // When
+        interceptor.onSessionDisconnect(new SessionDisconnectEvent(this,
+                MessageBuilder.createMessage(new byte[0], new MessageHeaders(null)),
+                "s1", CloseStatus.NORMAL));
+        channel.finish(channel.executed.get(0));
+
+        // Then
+        assertThat(channel.executed).hasSize(1);
+        assertThat(queued("message")).isZero();
+    }
+
+    @Test
+    void kindOf_ShouldClassifyByOriginalDestination() {
+        // Given
+        SimpMessageHeaderAccessor userStatus = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        userStatus.setDestination("/queue/user-status-users1");
+        userStatus.setHeader(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION, "/user/queue/user-status");
+
+        // When / Then
+        assertThat(OutboundDeliveryInterceptor.kindOf(userStatus.getMessageHeaders()))
+                .isEqualTo(OutboundDeliveryInterceptor.Kind.PRESENCE);
+        assertThat(OutboundDeliveryInterceptor.kindOf(frame("s1", "/topic/chatroom/4/status").getHeaders()))
+                .isEqualTo(OutboundDeliveryInterceptor.Kind.READ_STATUS);
+        assertThat(OutboundDeliveryInterceptor.kindOf(frame("s1", "/user/queue/errors").getHeaders()))
+                .isEqualTo(OutboundDeliveryInterceptor.Kind.CONTROL);
+        assertThat(OutboundDeliveryInterceptor.kindOf(frame("s1", null).getHeaders()))
+                .isEqualTo(OutboundDeliveryInterceptor.Kind.CONTROL);
+    }
+}
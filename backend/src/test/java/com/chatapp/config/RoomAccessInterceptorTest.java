@@ -0,0 +1,91 @@
+package com.chatapp.config;
+
+import com.chatapp.service.RoomMembershipCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RoomAccessInterceptorTest {
+
+    private RoomAccessInterceptor interceptor;
+    private RoomMembershipCache membershipCache;
+    private MessageChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        membershipCache = mock(RoomMembershipCache.class);
+        when(membershipCache.isMember(5L, 1L)).thenReturn(true);
+        channel = mock(MessageChannel.class);
+
+        interceptor = new RoomAccessInterceptor();
+        ReflectionTestUtils.setField(interceptor, "membershipCache", membershipCache);
+    }
+
+    private Message<byte[]> frame(StompCommand command, String destination, Long userId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        accessor.setSessionId("s1");
+        Map<String, Object> attributes = new HashMap<>();
+        if (userId != null) {
+            attributes.put("userId", userId);
+        }
+        accessor.setSessionAttributes(attributes);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @Test
+    void memberMaySubscribeToRoomTopics() {
+        assertThat(interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/chatroom/5", 1L), channel)).isNotNull();
+        assertThat(interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/chatroom/5/typing", 1L), channel)).isNotNull();
+        assertThat(interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/chatroom/5/status", 1L), channel)).isNotNull();
+        assertThat(interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/user/queue/errors", 1L), channel)).isNotNull();
+    }
+
+    @Test
+    void patternAndUnknownSubscriptionsAreDropped() {
+        // The broker would match these against every room's destinations
+        assertThat(interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/**", 1L), channel)).isNull();
+        assertThat(interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/*/5", 1L), channel)).isNull();
+        assertThat(interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/chatroom/5/*", 1L), channel)).isNull();
+        assertThat(interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/chatroom/{id}", 1L), channel)).isNull();
+        assertThat(interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/user/queue/*", 1L), channel)).isNull();
+        assertThat(interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/chatroom/5/other", 1L), channel)).isNull();
+        assertThat(interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/simp-user-registry", 1L), channel)).isNull();
+        assertThat(interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/queue/errors-usersession2", 1L), channel)).isNull();
+        verify(membershipCache, never()).isMember(anyLong(), anyLong());
+    }
+
+    @Test
+    void nonMemberAnonymousAndMalformedSubscriptionsAreDropped() {
+        assertThat(interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/chatroom/5", 2L), channel)).isNull();
+        assertThat(interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/chatroom/5", null), channel)).isNull();
+        assertThat(interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/chatroom/x5", 1L), channel)).isNull();
+    }
+
+    @Test
+    void clientSendsToBrokerDestinationsAreDropped() {
+        assertThat(interceptor.preSend(frame(StompCommand.SEND, "/topic/chatroom/5", 1L), channel)).isNull();
+        assertThat(interceptor.preSend(frame(StompCommand.SEND, "/user/bob/queue/errors", 1L), channel)).isNull();
+        assertThat(interceptor.preSend(frame(StompCommand.SEND, "/app/chat.sendMessage", 1L), channel)).isNotNull();
+    }
+
+    @Test
+    void roomIdIsParsedFromDestination() {
+        assertThat(RoomAccessInterceptor.roomIdOf("/topic/chatroom/123")).isEqualTo(123L);
+        assertThat(RoomAccessInterceptor.roomIdOf("/topic/chatroom/123/status")).isEqualTo(123L);
+        assertThat(RoomAccessInterceptor.roomIdOf("/topic/chatroom/")).isEqualTo(-1L);
+        assertThat(RoomAccessInterceptor.roomIdOf("/topic/chatroom/123/statuses")).isEqualTo(-1L);
+        assertThat(RoomAccessInterceptor.roomIdOf("/topic/other/123")).isEqualTo(-1L);
+    }
+}
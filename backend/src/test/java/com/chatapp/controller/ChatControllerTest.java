@@ -0,0 +1,75 @@
+package com.chatapp.controller;
+
+import com.chatapp.dto.MessageRequest;
+import com.chatapp.service.ChatService;
+import com.chatapp.service.RoomMembershipCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChatControllerTest {
+
+    private ChatController controller;
+    private ChatService chatService;
+    private SimpMessageHeaderAccessor alice;
+
+    @BeforeEach
+    void setUp() {
+        chatService = mock(ChatService.class);
+        RoomMembershipCache membershipCache = mock(RoomMembershipCache.class);
+        when(membershipCache.isMember(5L, 1L)).thenReturn(true);
+
+        controller = new ChatController();
+        ReflectionTestUtils.setField(controller, "chatService", chatService);
+        ReflectionTestUtils.setField(controller, "membershipCache", membershipCache);
+
+        // What the CONNECT interceptor stores from alice's JWT
+        alice = SimpMessageHeaderAccessor.create();
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("userId", 1L);
+        attributes.put("username", "alice");
+        alice.setSessionAttributes(attributes);
+    }
+
+    private MessageRequest request(String content) {
+        MessageRequest request = new MessageRequest();
+        request.setChatRoomId(5L);
+        request.setContent(content);
+        request.setType("CHAT");
+        return request;
+    }
+
+    @Test
+    void addUser_WithSomeoneElsesName_ShouldNotChangeWhoTheSessionSendsAs() {
+        // When
+        controller.addUser(request("bob"), alice);
+        controller.sendMessage(request("Hello"), alice);
+
+        // Then
+        verify(chatService).addUser(any(MessageRequest.class), eq("alice"));
+        verify(chatService).sendMessage(any(MessageRequest.class), eq("alice"));
+        verify(chatService, never()).sendMessage(any(MessageRequest.class), eq("bob"));
+        assertThat(alice.getSessionAttributes()).containsEntry("username", "alice");
+    }
+
+    @Test
+    void sendMessage_ToARoomTheSessionIsNotIn_ShouldBeDropped() {
+        // Given
+        MessageRequest elsewhere = request("Hello");
+        elsewhere.setChatRoomId(6L);
+
+        // When
+        controller.sendMessage(elsewhere, alice);
+
+        // Then
+        verifyNoInteractions(chatService);
+    }
+}
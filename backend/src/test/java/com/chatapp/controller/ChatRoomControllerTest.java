@@ -0,0 +1,72 @@
+package com.chatapp.controller;
+
+import com.chatapp.dto.MessageDto;
+import com.chatapp.security.UserPrincipal;
+import com.chatapp.service.MessageService;
+import com.chatapp.service.RoomMembershipCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChatRoomControllerTest {
+
+    private ChatRoomController controller;
+    private MessageService messageService;
+    private Authentication alice;
+
+    @BeforeEach
+    void setUp() {
+        messageService = mock(MessageService.class);
+        RoomMembershipCache membershipCache = mock(RoomMembershipCache.class);
+        when(membershipCache.isMember(5L, 1L)).thenReturn(true);
+
+        controller = new ChatRoomController();
+        ReflectionTestUtils.setField(controller, "messageService", messageService);
+        ReflectionTestUtils.setField(controller, "membershipCache", membershipCache);
+
+        UserPrincipal principal = new UserPrincipal(1L, "alice", "alice@example.com", null);
+        alice = new UsernamePasswordAuthenticationToken(principal, null, List.of());
+    }
+
+    @Test
+    void getChatRoomMessages_ForNonMember_ShouldBeForbidden() {
+        // When
+        ResponseEntity<List<MessageDto>> response = controller.getChatRoomMessages(6L, null, null, null, alice);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        verifyNoInteractions(messageService);
+    }
+
+    @Test
+    void getLastMessage_ForNonMember_ShouldBeForbidden() {
+        // When
+        ResponseEntity<MessageDto> response = controller.getLastMessage(6L, alice);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        verifyNoInteractions(messageService);
+    }
+
+    @Test
+    void getChatRoomMessages_ForMember_ShouldReturnThePage() {
+        // Given
+        when(messageService.getChatRoomMessages(eq(5L), isNull(), isNull(), isNull(), eq("alice"))).thenReturn(List.of());
+
+        // When
+        ResponseEntity<List<MessageDto>> response = controller.getChatRoomMessages(5L, null, null, null, alice);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+}
@@ -0,0 +1,133 @@
+package com.chatapp.dto;
+
+import com.chatapp.model.ChatRoom;
+import com.chatapp.model.Message;
+import com.chatapp.model.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ChatRoomDtoTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private ChatRoom chatRoom;
+    private User creator;
+    private User member;
+
+    @BeforeEach
+    void setUp() {
+        creator = user(1L, "creator");
+        member = user(2L, "member");
+
+        chatRoom = new ChatRoom("Test Room", ChatRoom.ChatRoomType.GROUP, creator);
+        chatRoom.setId(10L);
+        chatRoom.setCreatedAt(LocalDateTime.now());
+        chatRoom.getMembers().add(creator);
+        chatRoom.getMembers().add(member);
+    }
+
+    private User user(Long id, String username) {
+        User user = new User(username, username + "@example.com", "secret");
+        user.setId(id);
+        user.setIsOnline(true);
+        user.setLastSeen(LocalDateTime.now());
+        return user;
+    }
+
+    @Test
+    void summaryRow_ShouldMapToFlatDto() {
+        // Given
+        ChatRoomSummary summary = mock(ChatRoomSummary.class);
+        LocalDateTime lastMessageTime = LocalDateTime.now();
+        when(summary.getId()).thenReturn(10L);
+        when(summary.getName()).thenReturn("Test Room");
+        when(summary.getType()).thenReturn("GROUP");
+        when(summary.getCreatedById()).thenReturn(1L);
+        when(summary.getCreatedByUsername()).thenReturn("creator");
+        when(summary.getLastMessageId()).thenReturn(99L);
+        when(summary.getLastMessageContent()).thenReturn("Last message");
+        when(summary.getLastMessageType()).thenReturn("CHAT");
+        when(summary.getLastMessageTime()).thenReturn(lastMessageTime);
+        when(summary.getLastMessageSenderId()).thenReturn(2L);
+        when(summary.getLastMessageSenderUsername()).thenReturn("member");
+        when(summary.getUnreadCount()).thenReturn(3L);
+
+        // When
+        ChatRoomDto dto = ChatRoomDto.of(summary, List.of(UserDto.of(creator), UserDto.of(member)));
+
+        // Then
+        assertThat(dto.createdBy()).isEqualTo(new UserDto(1L, "creator", null, null));
+        assertThat(dto.lastMessage().chatRoomId()).isEqualTo(10L);
+        assertThat(dto.lastMessage().sender()).isEqualTo(new MessageDto.Sender(2L, "member"));
+        assertThat(dto.lastMessageTime()).isEqualTo(lastMessageTime);
+        assertThat(dto.unreadCount()).isEqualTo(3);
+        assertThat(dto.members()).hasSize(2);
+    }
+
+    @Test
+    void summaryRowWithoutMessages_ShouldHaveNoLastMessage() {
+        // Given
+        ChatRoomSummary summary = mock(ChatRoomSummary.class);
+        when(summary.getId()).thenReturn(10L);
+        when(summary.getType()).thenReturn("DIRECT");
+        when(summary.getCreatedById()).thenReturn(null);
+        when(summary.getLastMessageId()).thenReturn(null);
+        when(summary.getUnreadCount()).thenReturn(null);
+
+        // When
+        ChatRoomDto dto = ChatRoomDto.of(summary, List.of());
+
+        // Then
+        assertThat(dto.lastMessage()).isNull();
+        assertThat(dto.lastMessageTime()).isNull();
+        assertThat(dto.createdBy()).isNull();
+        assertThat(dto.unreadCount()).isZero();
+    }
+
+    @Test
+    void createdRoom_ShouldSerializeWithoutEntityGraph() {
+        // When
+        JsonNode json = objectMapper.valueToTree(ChatRoomDto.of(chatRoom));
+
+        // Then
+        assertThat(json.get("type").asText()).isEqualTo("GROUP");
+        assertThat(json.get("members")).hasSize(2);
+        assertThat(json.get("members").get(0).has("email")).isFalse();
+        assertThat(json.get("members").get(0).has("isOnline")).isTrue();
+        assertThat(json.has("lastMessage")).isFalse();
+        assertThat(json.has("messages")).isFalse();
+    }
+
+    @Test
+    void historyMessage_ShouldBeSmallerThanEntity() throws Exception {
+        // Given
+        Message message = new Message("Hello", member, chatRoom);
+        message.setId(5L);
+        message.setCreatedAt(LocalDateTime.now());
+        message.setIsDelivered(true);
+        message.setIsRead(true);
+
+        // When
+        JsonNode json = objectMapper.valueToTree(MessageDto.withReadState(message));
+        int dtoBytes = objectMapper.writeValueAsBytes(MessageDto.withReadState(message)).length;
+        int entityBytes = objectMapper.writeValueAsBytes(message).length;
+
+        // Then
+        assertThat(json.get("chatRoomId").asLong()).isEqualTo(10L);
+        assertThat(json.get("isRead").asBoolean()).isTrue();
+        assertThat(json.get("sender").size()).isEqualTo(2);
+        assertThat(json.has("readAt")).isFalse();
+        assertThat(dtoBytes).isLessThan(entityBytes / 2);
+    }
+}
@@ -0,0 +1,117 @@
+package com.chatapp.migration;
+
+import com.chatapp.ChatApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.*;
+
+// Runs the Flyway migrations against PostgreSQL and starts the app with ddl-auto=validate on top
+@Testcontainers(disabledWithoutDocker = true)
+class SchemaMigrationIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static JdbcTemplate jdbc(String database) {
+        String url = postgres.getJdbcUrl().replace("/" + postgres.getDatabaseName(), "/" + database);
+        return new JdbcTemplate(new DriverManagerDataSource(url, postgres.getUsername(), postgres.getPassword()));
+    }
+
+    private static ConfigurableApplicationContext createDatabaseAndStartApp(String database) {
+        jdbc(postgres.getDatabaseName()).execute("CREATE DATABASE " + database);
+        return startApp(database);
+    }
+
+    private static ConfigurableApplicationContext startApp(String database) {
+        String url = postgres.getJdbcUrl().replace("/" + postgres.getDatabaseName(), "/" + database);
+        return new SpringApplicationBuilder(ChatApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.username=" + postgres.getUsername(),
+                        "--spring.datasource.password=" + postgres.getPassword(),
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.com.chatapp=INFO",
+                        "--logging.level.org.springframework.security=INFO");
+    }
+
+    @Test
+    void freshDatabase_ShouldMigrateAndPassHibernateValidation() {
+        // When
+        try (ConfigurableApplicationContext context = createDatabaseAndStartApp("fresh")) {
+            // Then
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM flyway_schema_history WHERE success", Integer.class))
+                    .isGreaterThanOrEqualTo(2);
+            assertThat(jdbc.queryForList("SELECT indexname FROM pg_indexes WHERE tablename = 'chat_room_members'", String.class))
+                    .contains("idx_chat_room_members_user");
+            assertThat(jdbc.queryForList("SELECT indexname FROM pg_indexes WHERE tablename = 'messages'", String.class))
+                    .contains("idx_messages_room_seq_sender", "idx_messages_content_tsv")
+                    .doesNotContain("idx_messages_room_seq", "idx_messages_room_id", "idx_messages_room_id_sender");
+            assertThat(jdbc.queryForList("SELECT indexname FROM pg_indexes WHERE tablename = 'chat_rooms'", String.class))
+                    .contains("idx_chat_rooms_created_by")
+                    .doesNotContain("idx_chat_rooms_direct");
+            assertThat(jdbc.queryForList("SELECT indexname FROM pg_indexes WHERE tablename = 'users'", String.class))
+                    .contains("idx_users_username_trgm", "idx_users_username_prefix", "idx_users_email_prefix");
+        }
+    }
+
+    @Test
+    void legacyDatabase_ShouldBackfillReadStatesAndMoveSequencesPastExistingIds() {
+        // Given: the schema as ddl-auto: update left it, with identity ids and a per-message is_read flag
+        jdbc(postgres.getDatabaseName()).execute("CREATE DATABASE legacy");
+        JdbcTemplate legacy = jdbc("legacy");
+        legacy.execute("""
+                CREATE TABLE users (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    username VARCHAR(50) NOT NULL UNIQUE, email VARCHAR(100) NOT NULL UNIQUE,
+                    password VARCHAR(100) NOT NULL, created_at TIMESTAMP(6), last_seen TIMESTAMP(6), is_online BOOLEAN);
+                CREATE TABLE chat_rooms (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    name VARCHAR(100) NOT NULL, type VARCHAR(255), created_at TIMESTAMP(6),
+                    created_by BIGINT REFERENCES users (id));
+                CREATE TABLE chat_room_members (chat_room_id BIGINT NOT NULL REFERENCES chat_rooms (id),
+                    user_id BIGINT NOT NULL REFERENCES users (id), PRIMARY KEY (chat_room_id, user_id));
+                CREATE TABLE messages (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, content TEXT NOT NULL,
+                    created_at TIMESTAMP(6), sender_id BIGINT NOT NULL REFERENCES users (id),
+                    chat_room_id BIGINT NOT NULL REFERENCES chat_rooms (id), type VARCHAR(255),
+                    delivered_at TIMESTAMP(6), is_delivered BOOLEAN, is_read BOOLEAN NOT NULL, read_at TIMESTAMP(6));
+                INSERT INTO users (id, username, email, password) VALUES (1, 'alice', 'a@example.com', 'x'),
+                                                                         (2, 'bob', 'b@example.com', 'x');
+                INSERT INTO chat_rooms (id, name, type, created_by) VALUES (7, 'Room', 'GROUP', 1);
+                INSERT INTO chat_room_members VALUES (7, 1), (7, 2);
+                INSERT INTO messages (id, content, sender_id, chat_room_id, type, is_read) VALUES
+                    (100, 'one', 1, 7, 'CHAT', true), (101, 'two', 1, 7, 'CHAT', false), (102, 'three', 2, 7, 'CHAT', false);
+                """);
+
+        // When
+        try (ConfigurableApplicationContext context = startApp("legacy")) {
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+            // Then
+            // Existing history was numbered per room in send order
+            assertThat(jdbc.queryForList("SELECT room_seq FROM messages WHERE chat_room_id = 7 ORDER BY id", Long.class))
+                    .containsExactly(1L, 2L, 3L);
+            assertThat(jdbc.queryForObject("SELECT last_message_seq FROM chat_rooms WHERE id = 7", Long.class))
+                    .isEqualTo(3L);
+            // bob had read message 100, the room's first by seq
+            assertThat(jdbc.queryForObject(
+                    "SELECT last_read_seq FROM chat_room_read_states WHERE chat_room_id = 7 AND user_id = 2", Long.class))
+                    .isEqualTo(1L);
+            assertThat(jdbc.queryForObject(
+                    "SELECT last_read_seq FROM chat_room_read_states WHERE chat_room_id = 7 AND user_id = 1", Long.class))
+                    .isEqualTo(0L);
+            // Rows from before the search column were backfilled
+            assertThat(jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM messages WHERE content_tsv @@ to_tsquery('simple', 'three')", Long.class))
+                    .isEqualTo(1L);
+            assertThat(jdbc.queryForObject("SELECT nextval('messages_seq')", Long.class)).isGreaterThan(102L + 49);
+            assertThat(jdbc.queryForObject("SELECT nextval('users_seq')", Long.class)).isGreaterThan(2L + 49);
+        }
+    }
+}
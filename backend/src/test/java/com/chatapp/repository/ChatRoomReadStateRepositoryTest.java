@@ -0,0 +1,55 @@
+package com.chatapp.repository;
+
+import com.chatapp.dto.ChatRoomReadProgress;
+import com.chatapp.model.ChatRoomReadState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ChatRoomReadStateRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ChatRoomReadStateRepository readStateRepository;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persistAndFlush(new ChatRoomReadState(1L, 2L, 10L));
+        entityManager.clear();
+    }
+
+    @Test
+    void findReadProgress_ShouldReturnViewerAndFurthestOtherWatermark() {
+        // Given
+        entityManager.persistAndFlush(new ChatRoomReadState(1L, 3L, 7L));
+        entityManager.persistAndFlush(new ChatRoomReadState(1L, 4L, 12L));
+        entityManager.persistAndFlush(new ChatRoomReadState(9L, 5L, 40L));
+
+        // When
+        ChatRoomReadProgress progress = readStateRepository.findReadProgress(1L, 2L);
+
+        // Then
+        assertThat(progress.getOwnReadSeq()).isEqualTo(10L);
+        assertThat(progress.getOthersReadSeq()).isEqualTo(12L);
+        assertThat(progress.getOthersReadAt()).isNotNull();
+    }
+
+    @Test
+    void findReadProgress_WithoutRows_ShouldReturnNulls() {
+        // When
+        ChatRoomReadProgress progress = readStateRepository.findReadProgress(9L, 2L);
+
+        // Then
+        assertThat(progress.getOwnReadSeq()).isNull();
+        assertThat(progress.getOthersReadSeq()).isNull();
+    }
+}
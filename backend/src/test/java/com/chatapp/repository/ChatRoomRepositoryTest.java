@@ -0,0 +1,188 @@
+package com.chatapp.repository;
+
+import com.chatapp.dto.ChatRoomMemberSummary;
+import com.chatapp.dto.ChatRoomSummary;
+import com.chatapp.model.ChatRoom;
+import com.chatapp.model.ChatRoomReadState;
+import com.chatapp.model.Message;
+import com.chatapp.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ChatRoomRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User testUser;
+    private User otherUser;
+    private ChatRoom quietRoom;
+    private ChatRoom busyRoom;
+    private long nextSeq;
+
+    @BeforeEach
+    void setUp() {
+        // Create users
+        testUser = new User("testuser", "test@example.com", "password");
+        testUser = entityManager.persistAndFlush(testUser);
+
+        otherUser = new User("otheruser", "other@example.com", "password");
+        otherUser = entityManager.persistAndFlush(otherUser);
+
+        // Create chat rooms
+        quietRoom = new ChatRoom("Quiet Room", ChatRoom.ChatRoomType.GROUP, testUser);
+        quietRoom.getMembers().add(testUser);
+        quietRoom = entityManager.persistAndFlush(quietRoom);
+
+        busyRoom = new ChatRoom("Busy Room", ChatRoom.ChatRoomType.GROUP, testUser);
+        busyRoom.getMembers().add(testUser);
+        busyRoom.getMembers().add(otherUser);
+        busyRoom = entityManager.persistAndFlush(busyRoom);
+
+        // Create messages in the busy room only
+        persistMessage("Hello", testUser, busyRoom, LocalDateTime.now().plusMinutes(1));
+        persistMessage("Unread one", otherUser, busyRoom, LocalDateTime.now().plusMinutes(2));
+        persistMessage("Unread two", otherUser, busyRoom, LocalDateTime.now().plusMinutes(3));
+
+        entityManager.clear();
+    }
+
+    private Message persistMessage(String content, User sender, ChatRoom chatRoom, LocalDateTime createdAt) {
+        Message message = new Message(content, sender, chatRoom);
+        message.setType(Message.MessageType.CHAT);
+        message.setRoomSeq(++nextSeq);
+        message.setCreatedAt(createdAt);
+        entityManager.persistAndFlush(message);
+        // @PrePersist overwrites createdAt, so pin it afterwards
+        message.setCreatedAt(createdAt);
+        entityManager.flush();
+        pointAt(chatRoom, message.getId(), createdAt, content);
+        return message;
+    }
+
+    // What RoomSequenceAllocator.claim sets when the message takes its seq
+    private void pointAt(ChatRoom chatRoom, Long messageId, LocalDateTime sentAt, String content) {
+        jdbcTemplate.update("UPDATE chat_rooms SET last_message_id = ?, last_message_at = ?, last_message_preview = ? WHERE id = ?",
+                messageId, sentAt, ChatRoom.previewOf(content), chatRoom.getId());
+    }
+
+    @Test
+    void findChatRoomSummaries_ShouldOrderByLastActivity() {
+        // When
+        List<ChatRoomSummary> summaries = chatRoomRepository.findChatRoomSummaries(testUser.getId(), Pageable.unpaged());
+
+        // Then
+        assertThat(summaries).hasSize(2);
+        assertThat(summaries.get(0).getId()).isEqualTo(busyRoom.getId());
+        assertThat(summaries.get(1).getId()).isEqualTo(quietRoom.getId());
+    }
+
+    @Test
+    void findChatRoomSummaries_ShouldIncludeLastMessageAndUnreadCount() {
+        // When
+        ChatRoomSummary busy = chatRoomRepository.findChatRoomSummaries(testUser.getId(), Pageable.unpaged()).get(0);
+
+        // Then
+        assertThat(busy.getName()).isEqualTo("Busy Room");
+        assertThat(busy.getType()).isEqualTo("GROUP");
+        assertThat(busy.getCreatedByUsername()).isEqualTo("testuser");
+        assertThat(busy.getLastMessageContent()).isEqualTo("Unread two");
+        assertThat(busy.getLastMessageSenderUsername()).isEqualTo("otheruser");
+        assertThat(busy.getLastMessageTime()).isNotNull();
+        assertThat(busy.getUnreadCount()).isEqualTo(2L);
+    }
+
+    @Test
+    void findChatRoomSummaries_WithEmptyRoom_ShouldHaveNoLastMessage() {
+        // When
+        ChatRoomSummary quiet = chatRoomRepository.findChatRoomSummaries(testUser.getId(), Pageable.unpaged()).get(1);
+
+        // Then
+        assertThat(quiet.getLastMessageId()).isNull();
+        assertThat(quiet.getUnreadCount()).isEqualTo(0L);
+    }
+
+    @Test
+    void findChatRoomSummaries_WithPage_ShouldLimitRows() {
+        // When
+        List<ChatRoomSummary> firstPage = chatRoomRepository.findChatRoomSummaries(testUser.getId(), PageRequest.of(0, 1));
+        List<ChatRoomSummary> secondPage = chatRoomRepository.findChatRoomSummaries(testUser.getId(), PageRequest.of(1, 1));
+
+        // Then
+        assertThat(firstPage).extracting(ChatRoomSummary::getId).containsExactly(busyRoom.getId());
+        assertThat(secondPage).extracting(ChatRoomSummary::getId).containsExactly(quietRoom.getId());
+    }
+
+    @Test
+    void findChatRoomSummaries_ShouldOnlyReturnRoomsOfUser() {
+        // When
+        List<ChatRoomSummary> summaries = chatRoomRepository.findChatRoomSummaries(otherUser.getId(), Pageable.unpaged());
+
+        // Then
+        assertThat(summaries).extracting(ChatRoomSummary::getId).containsExactly(busyRoom.getId());
+        assertThat(summaries.get(0).getUnreadCount()).isEqualTo(1L); // "Hello" from testUser
+    }
+
+    @Test
+    void findChatRoomSummaries_ShouldCountOnlyMessagesAboveReadWatermark() {
+        // Given
+        Long secondMessageSeq = entityManager.getEntityManager()
+                .createQuery("SELECT m.roomSeq FROM Message m WHERE m.content = 'Unread one'", Long.class)
+                .getSingleResult();
+        entityManager.persistAndFlush(new ChatRoomReadState(busyRoom.getId(), testUser.getId(), secondMessageSeq));
+
+        // When
+        ChatRoomSummary busy = chatRoomRepository.findChatRoomSummaries(testUser.getId(), Pageable.unpaged()).get(0);
+
+        // Then
+        assertThat(busy.getUnreadCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void findChatRoomSummaries_WhileNewestMessageIsStillQueued_ShouldShowThePointer() {
+        // Given: claimed by a write-behind send whose row is not inserted yet
+        pointAt(quietRoom, 999L, LocalDateTime.now().plusMinutes(5), "x".repeat(300));
+
+        // When
+        ChatRoomSummary quiet = chatRoomRepository.findChatRoomSummaries(testUser.getId(), Pageable.unpaged()).get(0);
+
+        // Then
+        assertThat(quiet.getId()).isEqualTo(quietRoom.getId());
+        assertThat(quiet.getLastMessageId()).isEqualTo(999L);
+        assertThat(quiet.getLastMessageContent()).hasSize(ChatRoom.PREVIEW_LENGTH);
+        assertThat(quiet.getLastMessageSenderUsername()).isNull();
+    }
+
+    @Test
+    void findMemberSummaries_ShouldReturnMembersPerRoom() {
+        // When
+        List<ChatRoomMemberSummary> members = chatRoomRepository.findMemberSummaries(List.of(busyRoom.getId(), quietRoom.getId()));
+
+        // Then
+        assertThat(members).hasSize(3);
+        assertThat(members)
+                .filteredOn(member -> member.getChatRoomId().equals(busyRoom.getId()))
+                .extracting(ChatRoomMemberSummary::getUsername)
+                .containsExactlyInAnyOrder("testuser", "otheruser");
+    }
+}
@@ -0,0 +1,83 @@
+package com.chatapp.repository;
+
+import com.chatapp.model.ChatRoom;
+import com.chatapp.model.Message;
+import com.chatapp.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// Counts JDBC statements for a burst of inserts: with pooled sequence ids and hibernate.jdbc.batch_size
+// the burst becomes a handful of batches plus one sequence call per 50 ids
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class MessageBatchInsertTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User sender;
+    private ChatRoom chatRoom;
+
+    @BeforeEach
+    void setUp() {
+        sender = entityManager.persistAndFlush(new User("testuser", "test@example.com", "password"));
+        chatRoom = entityManager.persistAndFlush(new ChatRoom("Busy Room", ChatRoom.ChatRoomType.GROUP, sender));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void saveAll_WithMessageBurst_ShouldInsertInBatches() {
+        // Given
+        List<Message> burst = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            burst.add(new Message("Message " + i, sender, chatRoom));
+        }
+
+        // When
+        messageRepository.saveAll(burst);
+        entityManager.flush();
+
+        // Then
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(500);
+        // 10 insert batches of 50 and ~10 sequence calls, instead of 500 inserts
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(25);
+        assertThat(burst).extracting(Message::getId).doesNotContainNull().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void persist_WithNewUsersAndRooms_ShouldInsertInBatches() {
+        // Given
+        for (int i = 0; i < 100; i++) {
+            User user = new User("user" + i, "user" + i + "@example.com", "password");
+            entityManager.persist(user);
+            entityManager.persist(new ChatRoom("Room " + i, ChatRoom.ChatRoomType.GROUP, user));
+        }
+
+        // When
+        entityManager.flush();
+
+        // Then
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(200);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(15);
+    }
+}
@@ -1,6 +1,7 @@
 package com.chatapp.repository;
 
 import com.chatapp.model.ChatRoom;
+import com.chatapp.model.ChatRoomReadState;
 import com.chatapp.model.Message;
 import com.chatapp.model.User;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,6 +9,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,6 +19,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.*;
 
 @DataJpaTest
+@ActiveProfiles("test")
 class MessageRepositoryTest {
 
     @Autowired
@@ -61,6 +65,7 @@ class MessageRepositoryTest {
         message1.setType(Message.MessageType.CHAT);
         message1.setCreatedAt(LocalDateTime.now().minusMinutes(10));
         message1.setIsRead(true);
+        message1.setRoomSeq(1L);
         message1 = entityManager.persistAndFlush(message1);
 
         message2 = new Message();
@@ -70,6 +75,7 @@ class MessageRepositoryTest {
         message2.setType(Message.MessageType.CHAT);
         message2.setCreatedAt(LocalDateTime.now().minusMinutes(5));
         message2.setIsRead(false);
+        message2.setRoomSeq(2L);
         message2 = entityManager.persistAndFlush(message2);
 
         message3 = new Message();
@@ -79,6 +85,7 @@ class MessageRepositoryTest {
         message3.setType(Message.MessageType.CHAT);
         message3.setCreatedAt(LocalDateTime.now());
         message3.setIsRead(false);
+        message3.setRoomSeq(3L);
         message3 = entityManager.persistAndFlush(message3);
 
         entityManager.clear();
@@ -117,12 +124,8 @@ class MessageRepositoryTest {
 
     @Test
     void countUnreadMessagesForUser_WithNoUnreadMessages_ShouldReturnZero() {
-        // Given - mark all messages as read
-        message2.setIsRead(true);
-        message3.setIsRead(true);
-        entityManager.merge(message2);
-        entityManager.merge(message3);
-        entityManager.flush();
+        // Given - move the read watermark past all messages
+        entityManager.persistAndFlush(new ChatRoomReadState(testChatRoom.getId(), testUser.getId(), message3.getRoomSeq()));
         entityManager.clear();
 
         // When
@@ -132,6 +135,35 @@ class MessageRepositoryTest {
         assertThat(unreadCount).isEqualTo(0);
     }
 
+    @Test
+    void countUnreadMessagesForUser_ShouldCountOnlyMessagesAboveWatermark() {
+        // Given - read up to the second message
+        entityManager.persistAndFlush(new ChatRoomReadState(testChatRoom.getId(), testUser.getId(), message2.getRoomSeq()));
+        entityManager.clear();
+
+        // When
+        int unreadCount = messageRepository.countUnreadMessagesForUser(testChatRoom, testUser);
+
+        // Then
+        assertThat(unreadCount).isEqualTo(1); // only message3
+    }
+
+    @Test
+    void countUnreadMessagesForUser_ShouldFollowRoomSeqRatherThanIdOrder() {
+        // Given - message2 came from another node's id block: smaller id, but sent after message3
+        entityManager.getEntityManager().createQuery("UPDATE Message m SET m.roomSeq = 5 WHERE m.id = :id")
+                .setParameter("id", message2.getId())
+                .executeUpdate();
+        entityManager.persistAndFlush(new ChatRoomReadState(testChatRoom.getId(), testUser.getId(), message3.getRoomSeq()));
+        entityManager.clear();
+
+        // When
+        int unreadCount = messageRepository.countUnreadMessagesForUser(testChatRoom, testUser);
+
+        // Then
+        assertThat(unreadCount).isEqualTo(1); // message2
+    }
+
     @Test
     void countUnreadMessagesForUser_ShouldExcludeOwnMessages() {
         // Given - create unread message from testUser
@@ -142,6 +174,7 @@ class MessageRepositoryTest {
         ownMessage.setType(Message.MessageType.CHAT);
         ownMessage.setCreatedAt(LocalDateTime.now().plusMinutes(1));
         ownMessage.setIsRead(false);
+        ownMessage.setRoomSeq(4L);
         entityManager.persistAndFlush(ownMessage);
         entityManager.clear();
 
@@ -199,4 +232,58 @@ class MessageRepositoryTest {
         // Then
         assertThat(unreadCount).isEqualTo(0);
     }
+
+    @Test
+    void findLatestByChatRoomId_ShouldReturnNewestFirstUpToLimit() {
+        // When
+        List<Message> messages = messageRepository.findLatestByChatRoomId(testChatRoom.getId(), PageRequest.of(0, 2));
+
+        // Then
+        assertThat(messages).extracting(Message::getContent).containsExactly("Third message", "Second message");
+    }
+
+    @Test
+    void findBeforeCursor_ShouldReturnOlderMessages() {
+        // Given
+        LocalDateTime cursorTime = messageRepository
+                .findCreatedAtByIdAndChatRoomId(message3.getId(), testChatRoom.getId()).orElseThrow();
+
+        // When
+        List<Message> messages = messageRepository.findBeforeCursor(
+                testChatRoom.getId(), cursorTime, message3.getId(), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(messages).extracting(Message::getContent).containsExactly("Second message", "First message");
+    }
+
+    @Test
+    void findAfterCursor_ShouldReturnNewerMessagesInAscendingOrder() {
+        // Given
+        LocalDateTime cursorTime = messageRepository
+                .findCreatedAtByIdAndChatRoomId(message1.getId(), testChatRoom.getId()).orElseThrow();
+
+        // When
+        List<Message> messages = messageRepository.findAfterCursor(
+                testChatRoom.getId(), cursorTime, message1.getId(), PageRequest.of(0, 1));
+
+        // Then
+        assertThat(messages).extracting(Message::getContent).containsExactly("Second message");
+    }
+
+    @Test
+    void findCreatedAtByIdAndChatRoomId_WithMessageFromOtherRoom_ShouldReturnEmpty() {
+        // Given
+        ChatRoom otherChatRoom = new ChatRoom();
+        otherChatRoom.setName("Other Room");
+        otherChatRoom.setType(ChatRoom.ChatRoomType.GROUP);
+        otherChatRoom.setCreatedBy(testUser);
+        otherChatRoom = entityManager.persistAndFlush(otherChatRoom);
+
+        // When
+        Optional<LocalDateTime> cursorTime = messageRepository
+                .findCreatedAtByIdAndChatRoomId(message1.getId(), otherChatRoom.getId());
+
+        // Then
+        assertThat(cursorTime).isEmpty();
+    }
 }
\ No newline at end of file
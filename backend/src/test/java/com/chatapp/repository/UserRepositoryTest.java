@@ -0,0 +1,123 @@
+package com.chatapp.repository;
+
+import com.chatapp.model.ChatRoom;
+import com.chatapp.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class UserRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User persistUser(String username) {
+        return entityManager.persistAndFlush(new User(username, username + "@example.com", "password"));
+    }
+
+    private void persistRoom(String name, User... members) {
+        ChatRoom chatRoom = new ChatRoom(name, ChatRoom.ChatRoomType.GROUP, members[0]);
+        chatRoom.getMembers().addAll(List.of(members));
+        entityManager.persistAndFlush(chatRoom);
+    }
+
+    @Test
+    void findCoMemberUsernames_ShouldReturnDistinctUsersSharingARoom() {
+        // Given
+        User alice = persistUser("alice");
+        User bob = persistUser("bob");
+        User carol = persistUser("carol");
+        User dave = persistUser("dave");
+        persistRoom("One", alice, bob);
+        persistRoom("Two", alice, bob, carol);
+        persistRoom("Other", dave, carol);
+
+        // When
+        List<String> coMembers = userRepository.findCoMemberUsernames(alice.getId());
+
+        // Then
+        assertThat(coMembers).containsExactlyInAnyOrder("bob", "carol");
+    }
+
+    @Test
+    void searchUsers_ShouldRankExactThenPrefixThenSubstringAndExcludeCaller() {
+        // Given
+        User caller = persistUser("ann");
+        persistUser("joann");
+        persistUser("annabelle");
+        persistUser("anna");
+        persistUser("Ann_x");
+        entityManager.persistAndFlush(new User("zed", "ann.z@example.com", "password"));
+        persistUser("bob");
+
+        // When
+        List<User> users = userRepository.searchUsers("ann", "ann%", "%ann%", caller.getId(), 10);
+
+        // Then
+        assertThat(users).extracting(User::getUsername)
+                .containsExactly("anna", "Ann_x", "annabelle", "zed", "joann");
+    }
+
+    @Test
+    void searchUsers_ShouldApplyLimitAndTreatWildcardsLiterally() {
+        // Given
+        User caller = persistUser("caller");
+        persistUser("a_b");
+        persistUser("axb");
+        persistUser("a_bc");
+
+        // When
+        List<User> limited = userRepository.searchUsers("a_b", "a\\_b%", "%a\\_b%", caller.getId(), 1);
+        List<User> all = userRepository.searchUsers("a_b", "a\\_b%", "%a\\_b%", caller.getId(), 10);
+
+        // Then
+        assertThat(limited).extracting(User::getUsername).containsExactly("a_b");
+        assertThat(all).extracting(User::getUsername).containsExactly("a_b", "a_bc");
+    }
+
+    @Test
+    void searchUsersByPrefix_ShouldNotMatchInsideNames() {
+        // Given
+        User caller = persistUser("caller");
+        persistUser("al");
+        persistUser("sal");
+
+        // When
+        List<User> users = userRepository.searchUsersByPrefix("al", "al%", caller.getId(), 10);
+
+        // Then
+        assertThat(users).extracting(User::getUsername).containsExactly("al");
+    }
+
+    @Test
+    void findDirectoryPage_ShouldWalkUsernamesInOrderWithoutTheCaller() {
+        // Given
+        User caller = persistUser("carol");
+        persistUser("dave");
+        persistUser("alice");
+        persistUser("erin");
+        persistUser("bob");
+
+        // When
+        List<User> first = userRepository.findDirectoryPage("", caller.getId(), PageRequest.of(0, 2));
+        List<User> second = userRepository.findDirectoryPage("bob", caller.getId(), PageRequest.of(0, 2));
+        List<User> last = userRepository.findDirectoryPage("erin", caller.getId(), PageRequest.of(0, 2));
+
+        // Then
+        assertThat(first).extracting(User::getUsername).containsExactly("alice", "bob");
+        assertThat(second).extracting(User::getUsername).containsExactly("dave", "erin");
+        assertThat(last).isEmpty();
+    }
+}
@@ -0,0 +1,65 @@
+package com.chatapp.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.*;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = "mySecretKey123456789012345678901234567890";
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = newJwtUtils(SECRET);
+    }
+
+    private JwtUtils newJwtUtils(String secret) {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "jwtSecret", secret);
+        ReflectionTestUtils.setField(utils, "jwtExpirationMs", 60_000);
+        utils.init();
+        return utils;
+    }
+
+    private String tokenFor(JwtUtils utils, String username) {
+        UserPrincipal principal = new UserPrincipal(1L, username, username + "@example.com", null);
+        return utils.generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null));
+    }
+
+    @Test
+    void parseClaims_WithValidToken_ShouldReturnSubject() {
+        // Given
+        String token = tokenFor(jwtUtils, "testuser");
+
+        // When
+        Claims claims = jwtUtils.parseClaims(token);
+
+        // Then
+        assertThat(claims).isNotNull();
+        assertThat(claims.getSubject()).isEqualTo("testuser");
+        assertThat(jwtUtils.getUserNameFromJwtToken(token)).isEqualTo("testuser");
+    }
+
+    @Test
+    void parseClaims_WithForeignSignature_ShouldReturnNull() {
+        // Given
+        String token = tokenFor(newJwtUtils("anotherSecretKey12345678901234567890123456"), "testuser");
+
+        // When / Then
+        assertThat(jwtUtils.parseClaims(token)).isNull();
+        assertThat(jwtUtils.validateJwtToken(token)).isFalse();
+    }
+
+    @Test
+    void parseClaims_WithMalformedToken_ShouldReturnNull() {
+        // When / Then
+        assertThat(jwtUtils.parseClaims("not-a-token")).isNull();
+        assertThat(jwtUtils.parseClaims("")).isNull();
+    }
+}
@@ -0,0 +1,88 @@
+package com.chatapp.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PrincipalCacheTest {
+
+    private PrincipalCache cache;
+    private MeterRegistry meterRegistry;
+    private AtomicInteger loads;
+    private Function<String, UserPrincipal> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new PrincipalCache();
+        ReflectionTestUtils.setField(cache, "maxSize", 10);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        cache.registerMetrics();
+
+        loads = new AtomicInteger();
+        loader = username -> {
+            loads.incrementAndGet();
+            return new UserPrincipal(1L, username, username + "@example.com", "hash");
+        };
+    }
+
+    @Test
+    void get_WhenCalledTwice_ShouldLoadOnceAndStripPassword() {
+        // When
+        UserPrincipal first = cache.get("testuser", loader);
+        UserPrincipal second = cache.get("testuser", loader);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(second).isSameAs(first);
+        assertThat(first.getPassword()).isNull();
+        assertThat(meterRegistry.get("chatapp.auth.principal.cache").tag("result", "hit").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("chatapp.auth.principal.cache").tag("result", "miss").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void get_AfterInvalidate_ShouldReload() {
+        // Given
+        cache.get("testuser", loader);
+
+        // When
+        cache.invalidate("testuser");
+        cache.get("testuser", loader);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_WithExpiredEntry_ShouldReload() {
+        // Given
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 0L);
+        cache.get("testuser", loader);
+
+        // When
+        cache.get("testuser", loader);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_BeyondMaxSize_ShouldEvictToBound() {
+        // When
+        for (int i = 0; i < 25; i++) {
+            cache.get("user" + i, loader);
+        }
+
+        // Then
+        assertThat(meterRegistry.get("chatapp.auth.principal.cache.size").gauge().value()).isLessThanOrEqualTo(10.0);
+        assertThat(meterRegistry.get("chatapp.auth.principal.cache.evictions").counter().count()).isGreaterThan(0.0);
+    }
+}
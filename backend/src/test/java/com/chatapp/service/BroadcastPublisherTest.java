@@ -0,0 +1,65 @@
+package com.chatapp.service;
+
+import com.chatapp.dto.MessageDto;
+import com.chatapp.model.ChatRoom;
+import com.chatapp.model.Message;
+import com.chatapp.model.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.MimeTypeUtils;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BroadcastPublisherTest {
+
+    private BroadcastPublisher broadcastPublisher;
+    private SimpMessagingTemplate messagingTemplate;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        broadcastPublisher = new BroadcastPublisher();
+        ReflectionTestUtils.setField(broadcastPublisher, "messagingTemplate", messagingTemplate);
+        ReflectionTestUtils.setField(broadcastPublisher, "objectMapper", objectMapper);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publish_ShouldSendPreSerializedCompactMessage() throws Exception {
+        // Given
+        User sender = new User("alice", "alice@example.com", "hash");
+        sender.setId(7L);
+        ChatRoom chatRoom = new ChatRoom("General", ChatRoom.ChatRoomType.GROUP, sender);
+        chatRoom.setId(3L);
+        Message message = new Message("Hi all", sender, chatRoom);
+        message.setId(42L);
+
+        // When
+        broadcastPublisher.publish("/topic/chatroom/3", MessageDto.of(message));
+
+        // Then
+        ArgumentCaptor<org.springframework.messaging.Message<byte[]>> sent =
+                ArgumentCaptor.forClass(org.springframework.messaging.Message.class);
+        verify(messagingTemplate).send(eq("/topic/chatroom/3"), sent.capture());
+        assertThat(SimpMessageHeaderAccessor.wrap(sent.getValue()).getContentType())
+                .isEqualTo(MimeTypeUtils.APPLICATION_JSON);
+
+        JsonNode json = objectMapper.readTree(sent.getValue().getPayload());
+        assertThat(json.get("id").asLong()).isEqualTo(42L);
+        assertThat(json.get("chatRoomId").asLong()).isEqualTo(3L);
+        assertThat(json.get("sender").get("username").asText()).isEqualTo("alice");
+        assertThat(json.has("chatRoom")).isFalse();
+        assertThat(json.get("sender").has("email")).isFalse();
+    }
+}
@@ -0,0 +1,73 @@
+package com.chatapp.service;
+
+import com.chatapp.dto.ChatRoomCreatedEvent;
+import com.chatapp.model.ChatRoom;
+import com.chatapp.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ChatRoomServiceTest {
+
+    private ChatRoomService chatRoomService;
+    private SimpMessagingTemplate messagingTemplate;
+    private SimpUserRegistry userRegistry;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        userRegistry = mock(SimpUserRegistry.class);
+        meterRegistry = new SimpleMeterRegistry();
+        chatRoomService = new ChatRoomService();
+        ReflectionTestUtils.setField(chatRoomService, "messagingTemplate", messagingTemplate);
+        ReflectionTestUtils.setField(chatRoomService, "userRegistry", userRegistry);
+        ReflectionTestUtils.setField(chatRoomService, "meterRegistry", meterRegistry);
+    }
+
+    private User user(Long id, String username) {
+        User user = new User(username, username + "@example.com", "password");
+        user.setId(id);
+        return user;
+    }
+
+    @Test
+    void notifyMembersAboutNewChatRoom_ShouldSendCompactEventToMembersOnly() {
+        // Given
+        User alice = user(1L, "alice");
+        User bob = user(2L, "bob");
+        ChatRoom chatRoom = new ChatRoom("Alice & Bob", ChatRoom.ChatRoomType.DIRECT, alice);
+        chatRoom.setId(10L);
+        chatRoom.getMembers().add(alice);
+        chatRoom.getMembers().add(bob);
+        when(userRegistry.getUserCount()).thenReturn(500);
+        when(userRegistry.getUser("alice")).thenReturn(mock(SimpUser.class));
+
+        // When
+        ReflectionTestUtils.invokeMethod(chatRoomService, "notifyMembersAboutNewChatRoom", chatRoom);
+
+        // Then
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSendToUser(eq("alice"), eq("/queue/chatroom-created"), payload.capture());
+        verify(messagingTemplate).convertAndSendToUser(eq("bob"), eq("/queue/chatroom-created"), any(Object.class));
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+
+        ChatRoomCreatedEvent event = (ChatRoomCreatedEvent) payload.getValue();
+        assertThat(event.id()).isEqualTo(10L);
+        assertThat(event.createdBy().username()).isEqualTo("alice");
+        assertThat(event.members()).extracting(ChatRoomCreatedEvent.Member::username)
+                .containsExactlyInAnyOrder("alice", "bob");
+        assertThat(meterRegistry.counter("chatapp.websocket.chatroom-created.frames-saved").count()).isEqualTo(499.0);
+    }
+}
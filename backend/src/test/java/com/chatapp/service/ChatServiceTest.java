@@ -0,0 +1,59 @@
+package com.chatapp.service;
+
+import com.chatapp.dto.MessageRequest;
+import com.chatapp.security.CustomUserDetailsService;
+import com.chatapp.security.UserPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ChatServiceTest {
+
+    private ChatService chatService;
+    private RoomSequenceAllocator roomSequenceAllocator;
+    private MessageWriteBehind messageWriteBehind;
+
+    @BeforeEach
+    void setUp() {
+        roomSequenceAllocator = mock(RoomSequenceAllocator.class);
+        messageWriteBehind = mock(MessageWriteBehind.class);
+        when(messageWriteBehind.isEnabled()).thenReturn(true);
+        CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+        when(userDetailsService.loadCachedPrincipal("alice"))
+                .thenReturn(new UserPrincipal(7L, "alice", "alice@example.com", null));
+
+        chatService = new ChatService();
+        ReflectionTestUtils.setField(chatService, "roomSequenceAllocator", roomSequenceAllocator);
+        ReflectionTestUtils.setField(chatService, "messageWriteBehind", messageWriteBehind);
+        ReflectionTestUtils.setField(chatService, "messageIdAllocator", mock(MessageIdAllocator.class));
+        ReflectionTestUtils.setField(chatService, "userDetailsService", userDetailsService);
+    }
+
+    private MessageRequest request(String content, String type) {
+        MessageRequest request = new MessageRequest();
+        request.setChatRoomId(1L);
+        request.setContent(content);
+        request.setType(type);
+        return request;
+    }
+
+    @Test
+    void sendMessage_WriteBehindWithBlankContent_ShouldBeRejectedBeforeASeqIsClaimed() {
+        // When / Then
+        assertThatThrownBy(() -> chatService.sendMessage(request(" ", "CHAT"), "alice"))
+                .hasMessage("Message content must not be blank");
+        verifyNoInteractions(roomSequenceAllocator);
+        verify(messageWriteBehind, never()).enqueue(any());
+    }
+
+    @Test
+    void sendMessage_WriteBehindWithUnknownType_ShouldBeRejectedBeforeASeqIsClaimed() {
+        // When / Then
+        assertThatThrownBy(() -> chatService.sendMessage(request("Hello", "SHOUT"), "alice"))
+                .hasMessage("Invalid message type");
+        verifyNoInteractions(roomSequenceAllocator);
+    }
+}
@@ -0,0 +1,152 @@
+package com.chatapp.service;
+
+import com.chatapp.model.ChatRoom;
+import com.chatapp.model.Message;
+import com.chatapp.model.User;
+import com.chatapp.repository.ChatRoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class LastMessageRepairTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    private LastMessageRepair repair;
+    private SimpleMeterRegistry meterRegistry;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        repair = new LastMessageRepair();
+        ReflectionTestUtils.setField(repair, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(repair, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(repair, "settleMs", 60_000L);
+        ReflectionTestUtils.invokeMethod(repair, "init");
+
+        user = entityManager.persistAndFlush(new User("testuser", "test@example.com", "password"));
+    }
+
+    private Message persistMessage(ChatRoom chatRoom, long seq, String content) {
+        Message message = new Message(content, user, chatRoom);
+        message.setRoomSeq(seq);
+        return entityManager.persistAndFlush(message);
+    }
+
+    private void pointAt(ChatRoom chatRoom, Long messageId, LocalDateTime sentAt, String preview) {
+        jdbcTemplate.update("UPDATE chat_rooms SET last_message_id = ?, last_message_at = ?, last_message_preview = ? WHERE id = ?",
+                messageId, sentAt, preview, chatRoom.getId());
+    }
+
+    private ChatRoom reload(ChatRoom chatRoom) {
+        entityManager.clear();
+        return chatRoomRepository.findById(chatRoom.getId()).orElseThrow();
+    }
+
+    @Test
+    void repairDrift_ShouldRepointStaleAndMissingPointers() {
+        // Given
+        ChatRoom stale = entityManager.persistAndFlush(new ChatRoom("Stale", ChatRoom.ChatRoomType.GROUP, user));
+        Message first = persistMessage(stale, 1, "First");
+        Message second = persistMessage(stale, 2, "Second");
+        pointAt(stale, first.getId(), LocalDateTime.now().minusHours(1), "First");
+        ChatRoom missing = entityManager.persistAndFlush(new ChatRoom("Missing", ChatRoom.ChatRoomType.GROUP, user));
+        Message only = persistMessage(missing, 1, "Only");
+
+        // When
+        int repaired = repair.repairDrift();
+
+        // Then
+        assertThat(repaired).isEqualTo(2);
+        assertThat(reload(stale).getLastMessageId()).isEqualTo(second.getId());
+        assertThat(reload(stale).getLastMessagePreview()).isEqualTo("Second");
+        assertThat(reload(missing).getLastMessageId()).isEqualTo(only.getId());
+        assertThat(meterRegistry.counter("chatapp.last-message.repairs").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void repairDrift_ShouldClearPointerOfRoomWithoutMessages() {
+        // Given
+        ChatRoom room = entityManager.persistAndFlush(new ChatRoom("Emptied", ChatRoom.ChatRoomType.GROUP, user));
+        pointAt(room, 999L, LocalDateTime.now().minusHours(1), "gone");
+
+        // When
+        int repaired = repair.repairDrift();
+
+        // Then
+        assertThat(repaired).isEqualTo(1);
+        assertThat(reload(room).getLastMessageId()).isNull();
+        assertThat(reload(room).getLastMessagePreview()).isNull();
+    }
+
+    @Test
+    void repairDrift_WithConsistentPointers_ShouldDoNothing() {
+        // Given
+        ChatRoom room = entityManager.persistAndFlush(new ChatRoom("Fine", ChatRoom.ChatRoomType.GROUP, user));
+        Message message = persistMessage(room, 1, "Hi");
+        pointAt(room, message.getId(), LocalDateTime.now().minusHours(1), "Hi");
+
+        // When
+        int repaired = repair.repairDrift();
+
+        // Then
+        assertThat(repaired).isZero();
+    }
+
+    @Test
+    void repairDrift_ShouldLeaveARecentlyClaimedPointerAlone() {
+        // Given: a write-behind send claimed seq 2 and its insert is still queued
+        ChatRoom room = entityManager.persistAndFlush(new ChatRoom("Busy", ChatRoom.ChatRoomType.GROUP, user));
+        persistMessage(room, 1, "Hi");
+        pointAt(room, 999L, LocalDateTime.now(), "In flight");
+
+        // When
+        int repaired = repair.repairDrift();
+
+        // Then
+        assertThat(repaired).isZero();
+        assertThat(reload(room).getLastMessageId()).isEqualTo(999L);
+    }
+
+    @Test
+    void repoint_AfterAnotherSendClaimedTheRoom_ShouldDoNothing() {
+        // Given: message 998 was lost, but 999 has claimed the room since
+        ChatRoom room = entityManager.persistAndFlush(new ChatRoom("Busy", ChatRoom.ChatRoomType.GROUP, user));
+        Message message = persistMessage(room, 1, "Hi");
+        pointAt(room, 999L, LocalDateTime.now(), "Newer");
+
+        // When
+        boolean repointed = repair.repoint(room.getId(), 998L);
+
+        // Then
+        assertThat(repointed).isFalse();
+        assertThat(reload(room).getLastMessageId()).isEqualTo(999L);
+
+        // When
+        repointed = repair.repoint(room.getId(), 999L);
+
+        // Then
+        assertThat(repointed).isTrue();
+        assertThat(reload(room).getLastMessageId()).isEqualTo(message.getId());
+    }
+}
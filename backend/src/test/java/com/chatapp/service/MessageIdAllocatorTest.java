@@ -0,0 +1,61 @@
+package com.chatapp.service;
+
+import com.chatapp.model.ChatRoom;
+import com.chatapp.model.Message;
+import com.chatapp.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class MessageIdAllocatorTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private MessageIdAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        allocator = new MessageIdAllocator();
+        ReflectionTestUtils.setField(allocator, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(allocator, "entityManagerFactory", entityManagerFactory);
+        ReflectionTestUtils.invokeMethod(allocator, "init");
+    }
+
+    @Test
+    void nextId_ShouldNotCollideWithIdsHibernateAssigns() {
+        // Given
+        User user = entityManager.persistAndFlush(new User("testuser", "test@example.com", "password"));
+        ChatRoom chatRoom = entityManager.persistAndFlush(new ChatRoom("Room", ChatRoom.ChatRoomType.GROUP, user));
+        Set<Long> ids = new HashSet<>();
+
+        // When
+        for (int i = 0; i < 120; i++) {
+            ids.add(allocator.nextId());
+            ids.add(entityManager.persistAndFlush(new Message("Hello " + i, user, chatRoom)).getId());
+        }
+
+        // Then
+        assertThat(ids).hasSize(240);
+        assertThat(ids).allMatch(id -> id > 0);
+    }
+}
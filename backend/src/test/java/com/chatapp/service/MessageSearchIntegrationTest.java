@@ -0,0 +1,84 @@
+package com.chatapp.service;
+
+import com.chatapp.dto.MessageSearchHit;
+import com.chatapp.security.CustomUserDetailsService;
+import com.chatapp.security.UserPrincipal;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// The tsvector/GIN path of MessageSearchService against the migrated PostgreSQL schema
+@Testcontainers(disabledWithoutDocker = true)
+class MessageSearchIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static JdbcTemplate jdbc;
+    private static MessageSearchService searchService;
+
+    @BeforeAll
+    static void migrateAndSeed() {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("""
+                INSERT INTO users (id, username, email, password) VALUES (1, 'alice', 'a@example.com', 'x'),
+                                                                         (2, 'bob', 'b@example.com', 'x');
+                INSERT INTO chat_rooms (id, name, type, created_by, created_at) VALUES (7, 'Ours', 'GROUP', 1, now()),
+                                                                                      (8, 'Bobs', 'GROUP', 2, now());
+                INSERT INTO chat_room_members VALUES (7, 1), (7, 2), (8, 2);
+                INSERT INTO messages (id, content, created_at, sender_id, chat_room_id, type, room_seq) VALUES
+                    (100, 'Deploying the release tonight', now() - interval '3 minutes', 1, 7, 'CHAT', 1),
+                    (101, 'Release notes are <b>done</b>', now() - interval '2 minutes', 2, 7, 'CHAT', 2),
+                    (102, 'Unrelated chatter', now() - interval '1 minute', 2, 7, 'CHAT', 3),
+                    (103, 'Secret release plans', now(), 2, 8, 'CHAT', 1);
+                """);
+
+        CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+        when(userDetailsService.loadCachedPrincipal("alice"))
+                .thenReturn(new UserPrincipal(1L, "alice", "a@example.com", "x"));
+        searchService = new MessageSearchService();
+        ReflectionTestUtils.setField(searchService, "jdbcTemplate", jdbc);
+        ReflectionTestUtils.setField(searchService, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.invokeMethod(searchService, "init");
+    }
+
+    @Test
+    void search_ShouldUseTheGinIndexedVectorAndHighlight() {
+        // When
+        List<MessageSearchHit> hits = searchService.search("release", null, null, null, "alice");
+
+        // Then
+        assertThat(hits).extracting(hit -> hit.message().id()).containsExactly(101L, 100L);
+        assertThat(hits.get(0).highlight()).contains("<mark>Release</mark>").contains("&lt;b&gt;");
+        assertThat(jdbc.queryForObject(
+                "SELECT content_tsv @@ websearch_to_tsquery('simple', 'tonight') FROM messages WHERE id = 100", Boolean.class))
+                .isTrue();
+    }
+
+    @Test
+    void search_ShouldSupportPhrasesExclusionsAndPaging() {
+        // When
+        List<MessageSearchHit> phrase = searchService.search("\"release notes\"", null, null, null, "alice");
+        List<MessageSearchHit> excluded = searchService.search("release -notes", null, null, null, "alice");
+        List<MessageSearchHit> nextPage = searchService.search("release", null, 101L, 1, "alice");
+
+        // Then
+        assertThat(phrase).extracting(hit -> hit.message().id()).containsExactly(101L);
+        assertThat(excluded).extracting(hit -> hit.message().id()).containsExactly(100L);
+        assertThat(nextPage).extracting(hit -> hit.message().id()).containsExactly(100L);
+    }
+}
@@ -0,0 +1,131 @@
+package com.chatapp.service;
+
+import com.chatapp.dto.MessageSearchHit;
+import com.chatapp.model.ChatRoom;
+import com.chatapp.model.Message;
+import com.chatapp.model.User;
+import com.chatapp.security.CustomUserDetailsService;
+import com.chatapp.security.UserPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Runs the LIKE fallback on H2; the PostgreSQL full-text path is covered by MessageSearchIntegrationTest
+@DataJpaTest
+@ActiveProfiles("test")
+class MessageSearchServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MessageSearchService searchService;
+    private User alice;
+    private ChatRoom aliceRoom;
+    private ChatRoom otherRoom;
+
+    @BeforeEach
+    void setUp() {
+        alice = entityManager.persistAndFlush(new User("alice", "alice@example.com", "password"));
+        User bob = entityManager.persistAndFlush(new User("bob", "bob@example.com", "password"));
+
+        aliceRoom = new ChatRoom("Alice's room", ChatRoom.ChatRoomType.GROUP, alice);
+        aliceRoom.getMembers().add(alice);
+        aliceRoom.getMembers().add(bob);
+        aliceRoom = entityManager.persistAndFlush(aliceRoom);
+
+        otherRoom = new ChatRoom("Bob only", ChatRoom.ChatRoomType.GROUP, bob);
+        otherRoom.getMembers().add(bob);
+        otherRoom = entityManager.persistAndFlush(otherRoom);
+
+        persist("Lunch at noon?", bob, aliceRoom);
+        persist("Deploy the <b>release</b> after lunch", alice, aliceRoom);
+        persist("LUNCH is ready", bob, aliceRoom);
+        persist("Secret lunch plans", bob, otherRoom);
+
+        CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+        when(userDetailsService.loadCachedPrincipal("alice"))
+                .thenReturn(new UserPrincipal(alice.getId(), "alice", "alice@example.com", "password"));
+
+        searchService = new MessageSearchService();
+        ReflectionTestUtils.setField(searchService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(searchService, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.invokeMethod(searchService, "init");
+    }
+
+    private void persist(String content, User sender, ChatRoom chatRoom) {
+        entityManager.persistAndFlush(new Message(content, sender, chatRoom));
+    }
+
+    private List<String> contents(List<MessageSearchHit> hits) {
+        return hits.stream().map(hit -> hit.message().content()).toList();
+    }
+
+    @Test
+    void search_ShouldOnlyReturnMessagesFromCallersRoomsNewestFirst() {
+        // When
+        List<MessageSearchHit> hits = searchService.search("lunch", null, null, null, "alice");
+
+        // Then
+        assertThat(contents(hits)).containsExactly("LUNCH is ready", "Deploy the <b>release</b> after lunch", "Lunch at noon?");
+        assertThat(hits).allSatisfy(hit -> assertThat(hit.message().chatRoomId()).isEqualTo(aliceRoom.getId()));
+    }
+
+    @Test
+    void search_ShouldMatchAllTermsAndEscapeHighlight() {
+        // When
+        List<MessageSearchHit> hits = searchService.search("release LUNCH", null, null, null, "alice");
+
+        // Then
+        assertThat(hits).hasSize(1);
+        assertThat(hits.get(0).highlight())
+                .isEqualTo("Deploy the &lt;b&gt;<mark>release</mark>&lt;/b&gt; after <mark>lunch</mark>");
+        assertThat(hits.get(0).message().sender().username()).isEqualTo("alice");
+    }
+
+    @Test
+    void search_ShouldPageWithBeforeCursor() {
+        // Given
+        List<MessageSearchHit> firstPage = searchService.search("lunch", null, null, 2, "alice");
+
+        // When
+        List<MessageSearchHit> secondPage = searchService.search("lunch", null,
+                firstPage.get(1).message().id(), 2, "alice");
+
+        // Then
+        assertThat(firstPage).hasSize(2);
+        assertThat(contents(secondPage)).containsExactly("Lunch at noon?");
+    }
+
+    @Test
+    void search_InRoomUserIsNotIn_ShouldReturnNothing() {
+        // When
+        List<MessageSearchHit> hits = searchService.search("lunch", otherRoom.getId(), null, null, "alice");
+
+        // Then
+        assertThat(hits).isEmpty();
+    }
+
+    @Test
+    void search_WithBlankOrWildcardQuery_ShouldNotMatchEverything() {
+        // When
+        List<MessageSearchHit> blank = searchService.search("   ", null, null, null, "alice");
+        List<MessageSearchHit> wildcard = searchService.search("%", null, null, null, "alice");
+
+        // Then
+        assertThat(blank).isEmpty();
+        assertThat(wildcard).isEmpty();
+    }
+}
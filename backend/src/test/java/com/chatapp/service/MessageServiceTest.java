@@ -0,0 +1,201 @@
+package com.chatapp.service;
+
+import com.chatapp.dto.MessageDto;
+import com.chatapp.dto.RoomResync;
+import com.chatapp.model.ChatRoom;
+import com.chatapp.model.Message;
+import com.chatapp.model.User;
+import com.chatapp.repository.ChatRoomReadStateRepository;
+import com.chatapp.repository.ChatRoomRepository;
+import com.chatapp.repository.MessageRepository;
+import com.chatapp.security.CustomUserDetailsService;
+import com.chatapp.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MessageServiceTest {
+
+    private MessageService messageService;
+    private ChatRoomRepository chatRoomRepository;
+    private ChatRoomReadStateRepository readStateRepository;
+    private ReadWatermarkWriter readWatermarkWriter;
+    private RoomMembershipCache membershipCache;
+    private ReadStatusBroadcaster readStatusBroadcaster;
+    private MessageRepository messageRepository;
+    private MessageWriteBehind messageWriteBehind;
+    private RoomSequenceAllocator roomSequenceAllocator;
+
+    @BeforeEach
+    void setUp() {
+        chatRoomRepository = mock(ChatRoomRepository.class);
+        readStateRepository = mock(ChatRoomReadStateRepository.class);
+        readWatermarkWriter = mock(ReadWatermarkWriter.class);
+        membershipCache = mock(RoomMembershipCache.class);
+        readStatusBroadcaster = mock(ReadStatusBroadcaster.class);
+        messageRepository = mock(MessageRepository.class);
+        messageWriteBehind = mock(MessageWriteBehind.class);
+        roomSequenceAllocator = mock(RoomSequenceAllocator.class);
+        CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+        when(userDetailsService.loadCachedPrincipal("alice"))
+                .thenReturn(new UserPrincipal(7L, "alice", "alice@example.com", null));
+        when(membershipCache.isMember(1L, 7L)).thenReturn(true);
+        when(chatRoomRepository.findLastMessageSeq(1L)).thenReturn(Optional.of(5L));
+        when(readWatermarkWriter.advance(anyLong(), anyLong(), anyLong(), any())).thenReturn(true);
+
+        messageService = new MessageService();
+        ReflectionTestUtils.setField(messageService, "chatRoomRepository", chatRoomRepository);
+        ReflectionTestUtils.setField(messageService, "readStateRepository", readStateRepository);
+        ReflectionTestUtils.setField(messageService, "readWatermarkWriter", readWatermarkWriter);
+        ReflectionTestUtils.setField(messageService, "membershipCache", membershipCache);
+        ReflectionTestUtils.setField(messageService, "readStatusBroadcaster", readStatusBroadcaster);
+        ReflectionTestUtils.setField(messageService, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(messageService, "messageRepository", messageRepository);
+        ReflectionTestUtils.setField(messageService, "messageWriteBehind", messageWriteBehind);
+        ReflectionTestUtils.setField(messageService, "gapTimeoutMs", 30_000L);
+        ReflectionTestUtils.setField(messageService, "roomSequenceAllocator", roomSequenceAllocator);
+
+        // As inside the @Transactional call
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private Message message(long seq, LocalDateTime createdAt) {
+        User sender = new User();
+        sender.setId(8L);
+        sender.setUsername("bob");
+        ChatRoom chatRoom = new ChatRoom();
+        chatRoom.setId(1L);
+        Message message = new Message("Hello " + seq, sender, chatRoom);
+        message.setId(100 + seq);
+        message.setRoomSeq(seq);
+        message.setCreatedAt(createdAt);
+        return message;
+    }
+
+    private void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+
+    @Test
+    void markReadUpTo_ByNonMember_ShouldBeRefused() {
+        // When / Then
+        assertThatThrownBy(() -> messageService.markReadUpTo(2L, 3L, "alice"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Not a member of this chat room");
+        verifyNoInteractions(readWatermarkWriter, readStatusBroadcaster);
+    }
+
+    @Test
+    void markReadUpTo_PastTheNewestMessage_ShouldStopAtIt() {
+        // When
+        messageService.markReadUpTo(1L, Long.MAX_VALUE, "alice");
+
+        // Then
+        verify(readWatermarkWriter).advance(eq(1L), eq(7L), eq(5L), any());
+    }
+
+    @Test
+    void markReadUpTo_ShouldBroadcastOnlyOnceCommitted() {
+        // When
+        messageService.markReadUpTo(1L, 3L, "alice");
+
+        // Then
+        verifyNoInteractions(readStatusBroadcaster);
+
+        // When
+        commit();
+
+        // Then
+        verify(readStatusBroadcaster).watermarkAdvanced(eq(1L), eq(7L), eq(3L), any());
+    }
+
+    @Test
+    void markReadUpTo_WhenWatermarkAlreadyThere_ShouldSendNothing() {
+        // Given
+        when(readWatermarkWriter.advance(anyLong(), anyLong(), anyLong(), any())).thenReturn(false);
+
+        // When
+        messageService.markReadUpTo(1L, 3L, "alice");
+        commit();
+
+        // Then
+        verifyNoInteractions(readStatusBroadcaster);
+    }
+
+    @Test
+    void resync_WithWriteBehind_ShouldStopAtAGapThatMayStillFill() {
+        // Given: seq 4 is still queued on some node while 5 is already written
+        when(messageWriteBehind.isEnabled()).thenReturn(true);
+        LocalDateTime now = LocalDateTime.now();
+        when(messageRepository.findAfterSeq(eq(1L), eq(2L), any()))
+                .thenReturn(List.of(message(3, now), message(5, now)));
+
+        // When
+        List<RoomResync> result = messageService.resync(Map.of(1L, 2L), null, "alice");
+
+        // Then
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).messages()).extracting(MessageDto::seq).containsExactly(3L);
+        assertThat(result.get(0).complete()).isFalse();
+    }
+
+    @Test
+    void resync_ShouldSkipAGapOlderThanTheTimeout() {
+        // Given: seq 4 failed to persist long ago
+        when(messageWriteBehind.isEnabled()).thenReturn(true);
+        LocalDateTime old = LocalDateTime.now().minusMinutes(5);
+        when(messageRepository.findAfterSeq(eq(1L), eq(2L), any()))
+                .thenReturn(List.of(message(3, old), message(5, old), message(6, LocalDateTime.now())));
+
+        // When
+        List<RoomResync> result = messageService.resync(Map.of(1L, 2L), null, "alice");
+
+        // Then
+        assertThat(result.get(0).messages()).extracting(MessageDto::seq).containsExactly(3L, 5L, 6L);
+        assertThat(result.get(0).complete()).isTrue();
+    }
+
+    @Test
+    void resync_WithoutWriteBehind_ShouldTreatEveryGapAsPermanent() {
+        // Given
+        when(messageRepository.findAfterSeq(eq(1L), eq(0L), any()))
+                .thenReturn(List.of(message(2, LocalDateTime.now())));
+
+        // When
+        List<RoomResync> result = messageService.resync(Map.of(1L, 0L), null, "alice");
+
+        // Then
+        assertThat(result.get(0).messages()).extracting(MessageDto::seq).containsExactly(2L);
+        assertThat(result.get(0).complete()).isTrue();
+    }
+
+    @Test
+    void saveMessage_WithBlankContent_ShouldBeRejectedBeforeASeqIsClaimed() {
+        // Given
+        Message blank = message(1, LocalDateTime.now());
+        blank.setContent("   ");
+
+        // When / Then
+        assertThatThrownBy(() -> messageService.saveMessage(blank))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Message content must not be blank");
+        verifyNoInteractions(roomSequenceAllocator);
+    }
+}
@@ -0,0 +1,190 @@
+package com.chatapp.service;
+
+import com.chatapp.model.Message;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MessageWriteBehindTest {
+
+    private MessageWriteBehind writeBehind;
+    private JdbcTemplate jdbcTemplate;
+    private SimpMessagingTemplate messagingTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private RecentMessageCache recentMessages;
+    private LastMessageRepair lastMessageRepair;
+    private List<Integer> batchSizes;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        recentMessages = mock(RecentMessageCache.class);
+        lastMessageRepair = mock(LastMessageRepair.class);
+        batchSizes = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    batchSizes.add(invocation.<Collection<?>>getArgument(1).size());
+                    return new int[0][];
+                });
+
+        writeBehind = new MessageWriteBehind();
+        ReflectionTestUtils.setField(writeBehind, "enabled", true);
+        ReflectionTestUtils.setField(writeBehind, "queueCapacity", 2);
+        ReflectionTestUtils.setField(writeBehind, "batchSize", 200);
+        ReflectionTestUtils.setField(writeBehind, "offerTimeoutMs", 10L);
+        ReflectionTestUtils.setField(writeBehind, "maxAttempts", 2);
+        ReflectionTestUtils.setField(writeBehind, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(writeBehind, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(writeBehind, "messagingTemplate", messagingTemplate);
+        ReflectionTestUtils.setField(writeBehind, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(writeBehind, "recentMessages", recentMessages);
+        ReflectionTestUtils.setField(writeBehind, "lastMessageRepair", lastMessageRepair);
+    }
+
+    private MessageWriteBehind.PendingMessage pending(long id) {
+        return pending(id, 1L);
+    }
+
+    private MessageWriteBehind.PendingMessage pending(long id, long chatRoomId) {
+        return new MessageWriteBehind.PendingMessage(id, id, "Hello " + id, Message.MessageType.CHAT,
+                LocalDateTime.now(), chatRoomId, 7L, "alice");
+    }
+
+    private double counter(String result) {
+        return meterRegistry.counter("chatapp.messages.write-behind", "result", result).count();
+    }
+
+    @Test
+    void shutdown_ShouldPersistEverythingQueuedInBatches() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(writeBehind, "queueCapacity", 100);
+        ReflectionTestUtils.invokeMethod(writeBehind, "start");
+        for (long id = 1; id <= 50; id++) {
+            assertThat(writeBehind.enqueue(pending(id))).isTrue();
+        }
+
+        // When
+        ReflectionTestUtils.invokeMethod(writeBehind, "shutdown");
+
+        // Then
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(50);
+        assertThat(batchSizes.size()).isLessThan(50);
+        assertThat(counter("persisted")).isEqualTo(50.0);
+        assertThat(writeBehind.enqueue(pending(51))).isFalse();
+    }
+
+    @Test
+    void shutdown_WhileSendersEnqueue_ShouldPersistEveryAcceptedMessage() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(writeBehind, "queueCapacity", 100_000);
+        ReflectionTestUtils.invokeMethod(writeBehind, "start");
+        AtomicLong nextId = new AtomicLong();
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch sending = new CountDownLatch(4);
+        List<Thread> senders = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread sender = new Thread(() -> {
+                sending.countDown();
+                while (writeBehind.enqueue(pending(nextId.incrementAndGet()))) {
+                    accepted.incrementAndGet();
+                }
+            });
+            sender.start();
+            senders.add(sender);
+        }
+        sending.await(5, TimeUnit.SECONDS);
+
+        // When
+        ReflectionTestUtils.invokeMethod(writeBehind, "shutdown");
+        for (Thread sender : senders) {
+            sender.join(5_000);
+        }
+
+        // Then
+        assertThat(accepted.get()).isPositive();
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(accepted.get());
+    }
+
+    @Test
+    void write_ShouldInsertTheBatchWithoutTouchingTheRooms() {
+        // Given
+        ReflectionTestUtils.invokeMethod(writeBehind, "start");
+
+        // When
+        writeBehind.write(List.of(pending(1, 1L), pending(3, 1L), pending(2, 1L), pending(4, 2L)));
+
+        // Then: each room was pointed at its message when the seq was claimed
+        assertThat(batchSizes).containsExactly(4);
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE"), any(Object[].class));
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("UPDATE"), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(recentMessages).persisted(argThat(messages -> messages.size() == 4));
+    }
+
+    @Test
+    void enqueue_WhenQueueStaysFull_ShouldRefuseMessage() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return new int[0][];
+                });
+        ReflectionTestUtils.invokeMethod(writeBehind, "start");
+
+        // When
+        boolean refused = false;
+        for (long id = 1; id <= 10 && !refused; id++) {
+            refused = !writeBehind.enqueue(pending(id));
+        }
+        release.countDown();
+
+        // Then
+        assertThat(refused).isTrue();
+        assertThat(counter("rejected")).isEqualTo(1.0);
+        ReflectionTestUtils.invokeMethod(writeBehind, "shutdown");
+    }
+
+    @Test
+    void write_WhenInsertKeepsFailing_ShouldSendErrorFrameToEachSenderAndUncacheMessages() {
+        // Given
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("chat room does not exist"));
+        ReflectionTestUtils.invokeMethod(writeBehind, "start");
+
+        // When
+        writeBehind.write(List.of(pending(1), pending(2)));
+
+        // Then
+        verify(messagingTemplate, times(2)).convertAndSendToUser(eq("alice"), eq("/queue/errors"), any(Object.class));
+        verify(recentMessages).remove(1L, 1L);
+        verify(recentMessages).remove(1L, 2L);
+        verify(lastMessageRepair).repoint(1L, 1L);
+        verify(lastMessageRepair).repoint(1L, 2L);
+        assertThat(counter("failed")).isEqualTo(2.0);
+        assertThat(counter("persisted")).isZero();
+    }
+}
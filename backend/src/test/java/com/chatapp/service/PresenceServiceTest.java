@@ -0,0 +1,181 @@
+package com.chatapp.service;
+
+import com.chatapp.repository.UserRepository;
+import com.chatapp.security.CustomUserDetailsService;
+import com.chatapp.security.UserPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.DefaultSimpUserRegistry;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PresenceServiceTest {
+
+    private PresenceService presenceService;
+    private SimpMessagingTemplate messagingTemplate;
+    private UserRepository userRepository;
+    private JdbcTemplate jdbcTemplate;
+    private DefaultSimpUserRegistry userRegistry;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        userRepository = mock(UserRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        userRegistry = new DefaultSimpUserRegistry();
+        CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+        when(userDetailsService.loadCachedPrincipal(anyString())).thenAnswer(invocation -> {
+            String username = invocation.getArgument(0);
+            return new UserPrincipal((long) username.hashCode(), username, username + "@example.com", null);
+        });
+
+        presenceService = new PresenceService();
+        ReflectionTestUtils.setField(presenceService, "debounceMs", 0L);
+        ReflectionTestUtils.setField(presenceService, "messagingTemplate", messagingTemplate);
+        ReflectionTestUtils.setField(presenceService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(presenceService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(presenceService, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(presenceService, "userRegistry", userRegistry);
+    }
+
+    private org.springframework.messaging.Message<byte[]> sessionMessage(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT_ACK);
+        accessor.setSessionId(sessionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    // Both listeners get the event, as in the application context
+    private void connect(String username, String sessionId) {
+        SessionConnectedEvent event = new SessionConnectedEvent(this, sessionMessage(sessionId),
+                new UsernamePasswordAuthenticationToken(username, null));
+        userRegistry.onApplicationEvent(event);
+        presenceService.onSessionConnected(event);
+    }
+
+    private void disconnect(String username, String sessionId) {
+        SessionDisconnectEvent event = new SessionDisconnectEvent(this, sessionMessage(sessionId), sessionId,
+                CloseStatus.NORMAL, new UsernamePasswordAuthenticationToken(username, null));
+        userRegistry.onApplicationEvent(event);
+        presenceService.onSessionDisconnect(event);
+    }
+
+    @Test
+    void broadcastSettledChanges_ShouldNotifyOnlyConnectedCoMembers() {
+        // Given
+        connect("bob", "s-bob");
+        presenceService.broadcastSettledChanges();
+        reset(messagingTemplate);
+        when(userRepository.findCoMemberUsernames((long) "alice".hashCode())).thenReturn(List.of("bob", "carol"));
+
+        // When
+        connect("alice", "s-alice");
+        presenceService.broadcastSettledChanges();
+
+        // Then
+        verify(messagingTemplate).convertAndSendToUser(eq("bob"), eq("/queue/user-status"), any(Object.class));
+        verify(messagingTemplate, never()).convertAndSendToUser(eq("carol"), anyString(), any(Object.class));
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    void broadcastSettledChanges_WhenConnectionFlapsBack_ShouldSendNothing() {
+        // Given
+        connect("alice", "s1");
+        presenceService.broadcastSettledChanges();
+        reset(userRepository);
+
+        // When
+        disconnect("alice", "s1");
+        connect("alice", "s2");
+        presenceService.broadcastSettledChanges();
+
+        // Then
+        verifyNoInteractions(userRepository);
+        assertThat(presenceService.isOnline("alice")).isTrue();
+    }
+
+    @Test
+    void broadcastSettledChanges_WithinDebounceWindow_ShouldWait() {
+        // Given
+        ReflectionTestUtils.setField(presenceService, "debounceMs", 60_000L);
+
+        // When
+        connect("alice", "s1");
+        presenceService.broadcastSettledChanges();
+
+        // Then
+        verifyNoInteractions(userRepository, messagingTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushToDatabase_ShouldWriteChangedUsersInOneBatch() {
+        // Given
+        connect("alice", "s1");
+        connect("bob", "s2");
+        presenceService.setAway("bob", true);
+
+        // When
+        presenceService.flushToDatabase();
+        presenceService.flushToDatabase();
+
+        // Then
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("UPDATE users SET is_online"), argThat((List<Object[]> rows) ->
+                rows.size() == 2));
+    }
+
+    @Test
+    void flushToDatabase_AfterUserLeftAndOfflineWasSent_ShouldForgetUser() {
+        // Given
+        connect("alice", "s1");
+        presenceService.broadcastSettledChanges();
+        disconnect("alice", "s1");
+        presenceService.broadcastSettledChanges();
+
+        // When
+        presenceService.flushToDatabase();
+
+        // Then
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(presenceService, "presences")).isEmpty();
+    }
+
+    @Test
+    void broadcastSettledChanges_InACluster_ShouldUseEveryNodesConnectedUsers() {
+        // Given: bob is connected to another node only, alice to this one and another
+        SimpUserRegistry clusterRegistry = mock(SimpUserRegistry.class);
+        when(clusterRegistry.getUser(anyString())).thenReturn(mock(SimpUser.class));
+        ReflectionTestUtils.setField(presenceService, "userRegistry", clusterRegistry);
+        when(userRepository.findCoMemberUsernames((long) "alice".hashCode())).thenReturn(List.of("bob"));
+
+        // When
+        connect("alice", "s-alice");
+        presenceService.broadcastSettledChanges();
+
+        // Then
+        verify(messagingTemplate).convertAndSendToUser(eq("bob"), eq("/queue/user-status"), any(Object.class));
+
+        // When
+        disconnect("alice", "s-alice");
+        presenceService.broadcastSettledChanges();
+
+        // Then
+        verify(messagingTemplate, times(1)).convertAndSendToUser(eq("bob"), eq("/queue/user-status"), any(Object.class));
+    }
+}
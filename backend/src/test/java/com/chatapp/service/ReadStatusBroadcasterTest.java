@@ -0,0 +1,76 @@
+package com.chatapp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReadStatusBroadcasterTest {
+
+    private ReadStatusBroadcaster broadcaster;
+    private SimpMessagingTemplate messagingTemplate;
+
+    @BeforeEach
+    void setUp() {
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        broadcaster = new ReadStatusBroadcaster();
+        ReflectionTestUtils.setField(broadcaster, "messagingTemplate", messagingTemplate);
+    }
+
+    @Test
+    void flush_WithManyReadsInOneRoom_ShouldSendOneFrame() {
+        // Given
+        for (long seq = 1; seq <= 300; seq++) {
+            broadcaster.watermarkAdvanced(1L, 7L, seq, LocalDateTime.now());
+        }
+
+        // When
+        broadcaster.flush();
+
+        // Then
+        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/chatroom/1/status"), any(Object.class));
+    }
+
+    @Test
+    void flush_ShouldCarryHighWaterMarkOfEachReader() {
+        // Given
+        broadcaster.watermarkAdvanced(1L, 7L, 10L, LocalDateTime.now());
+        broadcaster.watermarkAdvanced(1L, 8L, 25L, LocalDateTime.now());
+        broadcaster.watermarkAdvanced(1L, 7L, 20L, LocalDateTime.now());
+
+        // When
+        broadcaster.flush();
+
+        // Then
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/chatroom/1/status"), payload.capture());
+        assertThat(payload.getValue()).hasFieldOrPropertyWithValue("upToSeq", 25L);
+        assertThat(payload.getValue()).hasFieldOrPropertyWithValue("readerId", 8L);
+        assertThat(payload.getValue()).hasFieldOrPropertyWithValue("readers", Map.of(7L, 20L, 8L, 25L));
+    }
+
+    @Test
+    void flush_ShouldSendOneFramePerRoomAndThenNothing() {
+        // Given
+        broadcaster.watermarkAdvanced(1L, 7L, 10L, LocalDateTime.now());
+        broadcaster.watermarkAdvanced(2L, 7L, 11L, LocalDateTime.now());
+
+        // When
+        broadcaster.flush();
+        broadcaster.flush();
+
+        // Then
+        verify(messagingTemplate).convertAndSend(eq("/topic/chatroom/1/status"), any(Object.class));
+        verify(messagingTemplate).convertAndSend(eq("/topic/chatroom/2/status"), any(Object.class));
+        verifyNoMoreInteractions(messagingTemplate);
+    }
+}
@@ -0,0 +1,123 @@
+package com.chatapp.service;
+
+import com.chatapp.model.ChatRoomReadState;
+import com.chatapp.model.ChatRoomReadStateId;
+import com.chatapp.repository.ChatRoomReadStateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ReadWatermarkWriterTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ChatRoomReadStateRepository readStateRepository;
+
+    private ReadWatermarkWriter writer;
+    private final ChatRoomReadStateId key = new ChatRoomReadStateId(1L, 2L);
+
+    @BeforeEach
+    void setUp() {
+        writer = new ReadWatermarkWriter();
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.invokeMethod(writer, "init");
+    }
+
+    private long watermark(ChatRoomReadStateId id) {
+        entityManager.clear();
+        return readStateRepository.findById(id).orElseThrow().getLastReadSeq();
+    }
+
+    @Test
+    void advance_WithHigherSeq_ShouldMoveForward() {
+        // Given
+        entityManager.persistAndFlush(new ChatRoomReadState(1L, 2L, 10L));
+
+        // When
+        boolean advanced = writer.advance(1L, 2L, 15L, LocalDateTime.now());
+
+        // Then
+        assertThat(advanced).isTrue();
+        assertThat(watermark(key)).isEqualTo(15L);
+    }
+
+    @Test
+    void advance_WithLowerSeq_ShouldNotMoveBackwards() {
+        // Given
+        entityManager.persistAndFlush(new ChatRoomReadState(1L, 2L, 10L));
+
+        // When
+        boolean advanced = writer.advance(1L, 2L, 5L, LocalDateTime.now());
+
+        // Then
+        assertThat(advanced).isFalse();
+        assertThat(watermark(key)).isEqualTo(10L);
+    }
+
+    @Test
+    void advance_WithoutRow_ShouldCreateIt() {
+        // When
+        boolean advanced = writer.advance(1L, 2L, 15L, LocalDateTime.now());
+
+        // Then
+        assertThat(advanced).isTrue();
+        assertThat(watermark(key)).isEqualTo(15L);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void advance_ConcurrentFirstReads_ShouldAllSucceedAndKeepTheHighestSeq() throws Exception {
+        // Given: several first reads of the same room by the same member, each in its own transaction
+        int readers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 1; i <= readers; i++) {
+                long seq = i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return writer.advance(50L, 60L, seq, LocalDateTime.now());
+                }));
+            }
+
+            // When
+            start.countDown();
+            for (Future<Boolean> result : results) {
+                result.get();
+            }
+
+            // Then
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT last_read_seq FROM chat_room_read_states WHERE chat_room_id = 50 AND user_id = 60", Long.class))
+                    .isEqualTo((long) readers);
+        } finally {
+            executor.shutdownNow();
+            jdbcTemplate.update("DELETE FROM chat_room_read_states WHERE chat_room_id = 50");
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.chatapp.service;
+
+import com.chatapp.dto.MessageDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RecentMessageCacheTest {
+
+    private RecentMessageCache cache;
+    private SimpleMeterRegistry meterRegistry;
+    private ClusterEvents clusterEvents;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clusterEvents = mock(ClusterEvents.class);
+        cache = new RecentMessageCache();
+        ReflectionTestUtils.setField(cache, "perRoom", 3);
+        ReflectionTestUtils.setField(cache, "maxRooms", 2);
+        ReflectionTestUtils.setField(cache, "maxBytes", 1_000_000L);
+        ReflectionTestUtils.setField(cache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(cache, "clusterEvents", clusterEvents);
+        ReflectionTestUtils.invokeMethod(cache, "init");
+    }
+
+    // Message ids are seq * 10 so the two are easy to tell apart
+    private MessageDto message(long chatRoomId, long seq) {
+        return new MessageDto(seq * 10, seq, "Message " + seq, "CHAT", LocalDateTime.now(), chatRoomId,
+                new MessageDto.Sender(1L, "alice"));
+    }
+
+    private List<Long> seqs(List<MessageDto> messages) {
+        return messages.stream().map(MessageDto::seq).toList();
+    }
+
+    private double counter(String result) {
+        return meterRegistry.get("chatapp.recent-messages.cache").tag("result", result).counter().count();
+    }
+
+    @Test
+    void coldSeedThenWrites_ShouldServeNewestMessagesInOrder() {
+        // Given
+        cache.seed(7L, List.of(message(7L, 1), message(7L, 2)), true, cache.generation());
+
+        // When
+        List<MessageDto> afterSeed = cache.latest(7L, 50);
+        cache.append(message(7L, 3));
+        cache.append(message(7L, 4));
+        List<MessageDto> afterWrites = cache.latest(7L, 3);
+
+        // Then
+        assertThat(seqs(afterSeed)).containsExactly(1L, 2L);
+        assertThat(seqs(afterWrites)).containsExactly(2L, 3L, 4L);
+        assertThat(cache.latest(7L, 50)).isNull();
+        assertThat(counter("hit")).isEqualTo(2.0);
+        assertThat(counter("miss")).isEqualTo(1.0);
+    }
+
+    @Test
+    void writesAloneWarmARoomOnceTheyFillThePage() {
+        // Given
+        cache.append(message(7L, 10));
+        cache.append(message(7L, 11));
+
+        // When
+        List<MessageDto> partial = cache.latest(7L, 3);
+        cache.append(message(7L, 12));
+        List<MessageDto> full = cache.latest(7L, 3);
+
+        // Then
+        assertThat(partial).isNull();
+        assertThat(seqs(full)).containsExactly(10L, 11L, 12L);
+    }
+
+    @Test
+    void firstMessageOfARoom_ShouldMakeItsBufferComplete() {
+        // When
+        cache.append(message(7L, 1));
+
+        // Then
+        assertThat(seqs(cache.latest(7L, 50))).containsExactly(1L);
+    }
+
+    @Test
+    void outOfOrderWrites_ShouldBeInsertedBySeqAndDeduplicated() {
+        // When
+        cache.append(message(7L, 1));
+        cache.append(message(7L, 2));
+        cache.append(message(7L, 4));
+        cache.append(message(7L, 3));
+        cache.append(message(7L, 3));
+
+        // Then
+        assertThat(seqs(cache.latest(7L, 3))).containsExactly(2L, 3L, 4L);
+        assertThat(cache.latest(7L, 4)).isNull();
+    }
+
+    @Test
+    void removedMessagesAndRooms_ShouldNotBeServedOrResurrectedByAnInFlightSeed() {
+        // Given
+        cache.seed(7L, List.of(message(7L, 1), message(7L, 2)), true, cache.generation());
+        long loadedAt = cache.generation();
+
+        // When
+        cache.remove(7L, 20L);
+        cache.removeRoom(8L);
+        cache.seed(8L, List.of(message(8L, 1)), true, loadedAt);
+
+        // Then
+        assertThat(seqs(cache.latest(7L, 50))).containsExactly(1L);
+        assertThat(cache.latest(8L, 1)).isNull();
+    }
+
+    @Test
+    void leastRecentlyUsedRoom_ShouldBeEvictedOverRoomOrByteBudget() {
+        // Given
+        cache.append(message(1L, 1));
+        cache.append(message(2L, 1));
+        cache.latest(1L, 1);
+
+        // When
+        cache.append(message(3L, 1));
+
+        // Then
+        assertThat(cache.latest(2L, 1)).isNull();
+        assertThat(cache.latest(1L, 1)).isNotNull();
+        assertThat(cache.size()).isEqualTo(2);
+
+        // When
+        ReflectionTestUtils.setField(cache, "maxBytes", cache.bytes());
+        cache.append(message(3L, 2));
+
+        // Then
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(seqs(cache.latest(3L, 2))).containsExactly(1L, 2L);
+        assertThat(meterRegistry.get("chatapp.recent-messages.cache.evictions").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void persistedChanges_ShouldBeAnnouncedToOtherNodes() {
+        // When
+        cache.append(message(7L, 1));
+        cache.appendPersisted(message(7L, 2));
+        cache.remove(7L, 20L);
+        cache.removeRoom(8L);
+
+        // Then
+        verify(clusterEvents, times(2)).publish(RecentMessageCache.RECENT_MESSAGES_EVENT, 7L);
+        verify(clusterEvents).publish(RecentMessageCache.RECENT_MESSAGES_EVENT, 8L);
+    }
+
+    @Test
+    void committedWriteBehindBatch_ShouldBeReappendedAndAnnouncedOncePerRoomInACluster() {
+        // Given
+        cache.persisted(List.of(message(7L, 1)));
+        verify(clusterEvents, never()).publish(anyString(), anyLong());
+        when(clusterEvents.isClustered()).thenReturn(true);
+        cache.append(message(7L, 1));
+
+        // When
+        cache.persisted(List.of(message(7L, 1), message(7L, 2), message(8L, 1)));
+
+        // Then
+        assertThat(seqs(cache.latest(7L, 3))).containsExactly(1L, 2L);
+        assertThat(seqs(cache.latest(8L, 3))).containsExactly(1L);
+        verify(clusterEvents).publish(RecentMessageCache.RECENT_MESSAGES_EVENT, 7L);
+        verify(clusterEvents).publish(RecentMessageCache.RECENT_MESSAGES_EVENT, 8L);
+    }
+
+    @Test
+    void changeOnAnotherNode_ShouldDropTheRoomAndAnInFlightSeed() {
+        // Given
+        ArgumentCaptor<LongConsumer> listener = ArgumentCaptor.forClass(LongConsumer.class);
+        ArgumentCaptor<Runnable> reset = ArgumentCaptor.forClass(Runnable.class);
+        verify(clusterEvents).subscribe(eq(RecentMessageCache.RECENT_MESSAGES_EVENT), listener.capture(), reset.capture());
+        cache.seed(7L, List.of(message(7L, 1)), true, cache.generation());
+        long loadedAt = cache.generation();
+
+        // When
+        listener.getValue().accept(7L);
+        cache.seed(7L, List.of(message(7L, 1)), true, loadedAt);
+
+        // Then
+        assertThat(cache.latest(7L, 1)).isNull();
+        verify(clusterEvents, never()).publish(anyString(), anyLong());
+
+        // When
+        cache.seed(8L, List.of(message(8L, 1)), true, cache.generation());
+        reset.getValue().run();
+
+        // Then
+        assertThat(cache.size()).isZero();
+        assertThat(cache.bytes()).isZero();
+    }
+}
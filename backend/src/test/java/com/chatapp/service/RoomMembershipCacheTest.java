@@ -0,0 +1,166 @@
+package com.chatapp.service;
+
+import com.chatapp.repository.ChatRoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RoomMembershipCacheTest {
+
+    private RoomMembershipCache cache;
+    private ChatRoomRepository chatRoomRepository;
+    private ClusterEvents clusterEvents;
+
+    @BeforeEach
+    void setUp() {
+        chatRoomRepository = mock(ChatRoomRepository.class);
+        when(chatRoomRepository.findMemberIds(anyLong())).thenReturn(List.of());
+        when(chatRoomRepository.findMemberIds(1L)).thenReturn(List.of(10L, 11L));
+        when(chatRoomRepository.findMemberIds(2L)).thenReturn(List.of(10L));
+
+        clusterEvents = mock(ClusterEvents.class);
+
+        cache = new RoomMembershipCache();
+        ReflectionTestUtils.setField(cache, "maxRooms", 4);
+        ReflectionTestUtils.setField(cache, "chatRoomRepository", chatRoomRepository);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "clusterEvents", clusterEvents);
+        ReflectionTestUtils.invokeMethod(cache, "init");
+    }
+
+    @Test
+    void roomIsLoadedOnceAndIndexedBothWays() {
+        // when
+        boolean member = cache.isMember(1L, 10L);
+        boolean other = cache.isMember(1L, 11L);
+        boolean outsider = cache.isMember(1L, 12L);
+        cache.isMember(2L, 10L);
+
+        // then
+        assertThat(member).isTrue();
+        assertThat(other).isTrue();
+        assertThat(outsider).isFalse();
+        verify(chatRoomRepository, times(1)).findMemberIds(1L);
+        assertThat(cache.cachedRoomsOf(10L)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(cache.cachedRoomsOf(11L)).containsExactly(1L);
+    }
+
+    @Test
+    void joinLeaveAndDeleteUpdateTheIndexInPlace() {
+        // given
+        cache.isMember(1L, 10L);
+
+        // when
+        cache.addMember(1L, 12L);
+        cache.removeMember(1L, 11L);
+
+        // then
+        assertThat(cache.isMember(1L, 12L)).isTrue();
+        assertThat(cache.isMember(1L, 11L)).isFalse();
+        assertThat(cache.cachedRoomsOf(11L)).isEmpty();
+        verify(chatRoomRepository, times(1)).findMemberIds(1L);
+
+        // when
+        cache.removeRoom(1L);
+
+        // then
+        assertThat(cache.size()).isZero();
+        assertThat(cache.cachedRoomsOf(10L)).isEmpty();
+    }
+
+    @Test
+    void changesAreAnnouncedToOtherNodes() {
+        // when
+        cache.addMember(1L, 12L);
+        cache.removeMember(1L, 11L);
+        cache.removeRoom(2L);
+
+        // then
+        verify(clusterEvents, times(2)).publish(RoomMembershipCache.MEMBERSHIP_EVENT, 1L);
+        verify(clusterEvents).publish(RoomMembershipCache.MEMBERSHIP_EVENT, 2L);
+    }
+
+    @Test
+    void changeOnAnotherNodeForcesReload() {
+        // given
+        ArgumentCaptor<LongConsumer> listener = ArgumentCaptor.forClass(LongConsumer.class);
+        ArgumentCaptor<Runnable> reset = ArgumentCaptor.forClass(Runnable.class);
+        verify(clusterEvents).subscribe(eq(RoomMembershipCache.MEMBERSHIP_EVENT), listener.capture(), reset.capture());
+        assertThat(cache.isMember(1L, 12L)).isFalse();
+        when(chatRoomRepository.findMemberIds(1L)).thenReturn(List.of(10L, 11L, 12L));
+
+        // when
+        listener.getValue().accept(1L);
+
+        // then
+        assertThat(cache.isMember(1L, 12L)).isTrue();
+        verify(chatRoomRepository, times(2)).findMemberIds(1L);
+        verify(clusterEvents, never()).publish(anyString(), anyLong());
+
+        // when
+        cache.isMember(2L, 10L);
+        reset.getValue().run();
+
+        // then
+        assertThat(cache.size()).isZero();
+        assertThat(cache.cachedRoomsOf(10L)).isEmpty();
+    }
+
+    @Test
+    void createdRoomIsServedWithoutQuery() {
+        // when
+        cache.putRoom(3L, List.of(20L, 21L));
+
+        // then
+        assertThat(cache.isMember(3L, 21L)).isTrue();
+        verify(chatRoomRepository, never()).findMemberIds(3L);
+    }
+
+    @Test
+    void sizeIsBoundedBySlotCount() {
+        // when
+        for (long roomId = 100; roomId < 120; roomId++) {
+            cache.putRoom(roomId, List.of(roomId * 10));
+        }
+
+        // then
+        assertThat(cache.size()).isEqualTo(4);
+        assertThat(cache.isMember(119L, 1190L)).isTrue();
+        assertThat(cache.cachedRoomsOf(1000L)).isEmpty();
+    }
+
+    @Test
+    void unknownRoomsAreNotCached() {
+        // when
+        boolean member = cache.isMember(99L, 10L);
+
+        // then
+        assertThat(member).isFalse();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void longSetHandlesLargeRooms() {
+        // given
+        RoomMembershipCache.LongSet set = RoomMembershipCache.LongSet.of(
+                LongStream.rangeClosed(1, 5000).boxed().toList());
+
+        // then
+        assertThat(set.contains(1L)).isTrue();
+        assertThat(set.contains(5000L)).isTrue();
+        assertThat(set.contains(5001L)).isFalse();
+        assertThat(set.contains(0L)).isFalse();
+        assertThat(set.without(42L).contains(42L)).isFalse();
+        assertThat(set.with(6000L).toArray()).hasSize(5001);
+    }
+}
@@ -0,0 +1,136 @@
+package com.chatapp.service;
+
+import com.chatapp.model.ChatRoom;
+import com.chatapp.model.Message;
+import com.chatapp.model.User;
+import com.chatapp.repository.ChatRoomRepository;
+import com.chatapp.repository.MessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class RoomSequenceAllocatorTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ChatRoomRepository chatRoomRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    private RoomSequenceAllocator allocator;
+    private User user;
+    private ChatRoom room;
+    private ChatRoom otherRoom;
+
+    @BeforeEach
+    void setUp() {
+        allocator = new RoomSequenceAllocator();
+        ReflectionTestUtils.setField(allocator, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.invokeMethod(allocator, "init");
+
+        user = entityManager.persistAndFlush(new User("testuser", "test@example.com", "password"));
+        room = entityManager.persistAndFlush(new ChatRoom("Room", ChatRoom.ChatRoomType.GROUP, user));
+        otherRoom = entityManager.persistAndFlush(new ChatRoom("Other", ChatRoom.ChatRoomType.GROUP, user));
+    }
+
+    private long claim(ChatRoom chatRoom, long messageId) {
+        return allocator.claim(chatRoom.getId(), messageId, LocalDateTime.now(), "Hi");
+    }
+
+    private Message send(ChatRoom chatRoom, String content) {
+        Message message = new Message(content, user, chatRoom);
+        message.setRoomSeq(claim(chatRoom, 0L));
+        return entityManager.persistAndFlush(message);
+    }
+
+    @Test
+    void claim_ShouldCountPerRoomFromOne() {
+        // When
+        long first = claim(room, 101L);
+        long second = claim(room, 102L);
+        long otherFirst = claim(otherRoom, 103L);
+
+        // Then
+        assertThat(first).isEqualTo(1L);
+        assertThat(second).isEqualTo(2L);
+        assertThat(otherFirst).isEqualTo(1L);
+    }
+
+    @Test
+    void claim_ShouldPointTheRoomAtTheClaimingMessage() {
+        // Given
+        LocalDateTime sentAt = LocalDateTime.now().withNano(0);
+
+        // When
+        allocator.claim(room.getId(), 101L, sentAt, "First");
+        allocator.claim(room.getId(), 102L, sentAt.plusSeconds(1), "Second");
+        entityManager.clear();
+
+        // Then
+        ChatRoom loaded = chatRoomRepository.findById(room.getId()).orElseThrow();
+        assertThat(loaded.getLastMessageSeq()).isEqualTo(2L);
+        assertThat(loaded.getLastMessageId()).isEqualTo(102L);
+        assertThat(loaded.getLastMessageAt()).isEqualTo(sentAt.plusSeconds(1));
+        assertThat(loaded.getLastMessagePreview()).isEqualTo("Second");
+    }
+
+    @Test
+    void claim_ShouldSurviveSavingAStaleRoomEntity() {
+        // Given
+        ChatRoom loaded = chatRoomRepository.findById(room.getId()).orElseThrow();
+        claim(room, 101L);
+        claim(room, 102L);
+
+        // When
+        loaded.setName("Renamed");
+        chatRoomRepository.saveAndFlush(loaded);
+        entityManager.clear();
+
+        // Then
+        assertThat(chatRoomRepository.findById(room.getId()).orElseThrow().getLastMessageSeq()).isEqualTo(2L);
+        assertThat(claim(room, 103L)).isEqualTo(3L);
+    }
+
+    @Test
+    void claim_WithUnknownRoom_ShouldThrow() {
+        assertThatThrownBy(() -> allocator.claim(-1L, 101L, LocalDateTime.now(), "Hi"))
+                .hasMessage("Chat room not found");
+    }
+
+    @Test
+    void findAfterSeq_ShouldReturnOnlyLaterMessagesOfTheRoomInOrder() {
+        // Given
+        send(room, "one");
+        send(room, "two");
+        send(otherRoom, "elsewhere");
+        send(room, "three");
+        send(room, "four");
+        entityManager.clear();
+
+        // When
+        List<Message> missed = messageRepository.findAfterSeq(room.getId(), 1L, PageRequest.of(0, 2));
+
+        // Then
+        assertThat(missed).extracting(Message::getContent).containsExactly("two", "three");
+        assertThat(missed).extracting(Message::getRoomSeq).containsExactly(2L, 3L);
+    }
+}
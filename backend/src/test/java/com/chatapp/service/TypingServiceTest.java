@@ -0,0 +1,125 @@
+package com.chatapp.service;
+
+import com.chatapp.repository.ChatRoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TypingServiceTest {
+
+    private TypingService typingService;
+    private ChatRoomRepository chatRoomRepository;
+    private BroadcastPublisher broadcastPublisher;
+    private RoomMembershipCache membershipCache;
+
+    @BeforeEach
+    void setUp() {
+        chatRoomRepository = mock(ChatRoomRepository.class);
+        broadcastPublisher = mock(BroadcastPublisher.class);
+        when(chatRoomRepository.findMemberIds(7L)).thenReturn(List.of(1L, 2L));
+        when(chatRoomRepository.findMemberIds(8L)).thenReturn(List.of());
+
+        membershipCache = new RoomMembershipCache();
+        ReflectionTestUtils.setField(membershipCache, "maxRooms", 16);
+        ReflectionTestUtils.setField(membershipCache, "chatRoomRepository", chatRoomRepository);
+        ReflectionTestUtils.setField(membershipCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(membershipCache, "clusterEvents", new ClusterEvents());
+        ReflectionTestUtils.invokeMethod(membershipCache, "init");
+
+        typingService = new TypingService();
+        ReflectionTestUtils.setField(typingService, "throttleMs", 60_000L);
+        ReflectionTestUtils.setField(typingService, "stateTtlMs", 60_000L);
+        ReflectionTestUtils.setField(typingService, "membershipCache", membershipCache);
+        ReflectionTestUtils.setField(typingService, "broadcastPublisher", broadcastPublisher);
+    }
+
+    @Test
+    void typingIsForwardedOncePerThrottleWindowAndMembershipIsLoadedOnce() {
+        // when
+        boolean first = typingService.typing(1L, "alice", 7L, true, "s1", 1L);
+        boolean second = typingService.typing(1L, "alice", 7L, true, "s1", 2L);
+        boolean third = typingService.typing(1L, "alice", 7L, true, "s1", 3L);
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(third).isFalse();
+        verify(broadcastPublisher, times(1)).publish(eq("/topic/chatroom/7/typing"), any());
+        verify(chatRoomRepository, times(1)).findMemberIds(7L);
+    }
+
+    @Test
+    void stopIsForwardedOnlyAfterForwardedTyping() {
+        // when
+        boolean strayStop = typingService.typing(1L, "alice", 7L, false, "s1", 1L);
+        typingService.typing(1L, "alice", 7L, true, "s1", 2L);
+        boolean stop = typingService.typing(1L, "alice", 7L, false, "s1", 3L);
+        boolean typingAgain = typingService.typing(1L, "alice", 7L, true, "s1", 4L);
+
+        // then
+        assertThat(strayStop).isFalse();
+        assertThat(stop).isTrue();
+        assertThat(typingAgain).isTrue();
+        verify(broadcastPublisher, times(3)).publish(eq("/topic/chatroom/7/typing"), any());
+    }
+
+    @Test
+    void staleSequenceIsDroppedButNewSessionStartsOver() {
+        // given
+        typingService.typing(1L, "alice", 7L, true, "s1", 5L);
+
+        // when
+        boolean stale = typingService.typing(1L, "alice", 7L, false, "s1", 4L);
+        boolean reconnected = typingService.typing(1L, "alice", 7L, false, "s2", 1L);
+
+        // then
+        assertThat(stale).isFalse();
+        assertThat(reconnected).isTrue();
+    }
+
+    @Test
+    void nonMembersAndUnknownRoomsAreIgnored() {
+        // when
+        boolean outsider = typingService.typing(3L, "mallory", 7L, true, "s1", 1L);
+        boolean unknownRoom = typingService.typing(1L, "alice", 8L, true, "s1", 1L);
+
+        // then
+        assertThat(outsider).isFalse();
+        assertThat(unknownRoom).isFalse();
+        verifyNoInteractions(broadcastPublisher);
+    }
+
+    @Test
+    void memberWhoLeftIsIgnoredWithoutReloading() {
+        // given
+        typingService.typing(1L, "alice", 7L, true, "s1", 1L);
+
+        // when
+        membershipCache.removeMember(7L, 1L);
+        boolean afterLeaving = typingService.typing(1L, "alice", 7L, false, "s1", 2L);
+
+        // then
+        assertThat(afterLeaving).isFalse();
+        verify(chatRoomRepository, times(1)).findMemberIds(7L);
+    }
+
+    @Test
+    void idleStatesAreEvicted() {
+        // given
+        typingService.typing(1L, "alice", 7L, true, "s1", 1L);
+        ReflectionTestUtils.setField(typingService, "stateTtlMs", -1L);
+
+        // when
+        typingService.evictIdleStates();
+
+        // then
+        assertThat(typingService.trackedStates()).isZero();
+    }
+}
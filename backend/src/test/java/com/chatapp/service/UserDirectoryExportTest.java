@@ -0,0 +1,140 @@
+package com.chatapp.service;
+
+import com.chatapp.model.User;
+import com.chatapp.repository.UserRepository;
+import com.chatapp.security.CustomUserDetailsService;
+import com.chatapp.security.UserPrincipal;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Runs outside the test transaction, as the export does on the response thread
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserDirectoryExportTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    private UserService userService(User caller) {
+        CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+        when(userDetailsService.loadCachedPrincipal(caller.getUsername()))
+                .thenReturn(new UserPrincipal(caller.getId(), caller.getUsername(), caller.getEmail(), "password"));
+        UserService userService = new UserService();
+        ReflectionTestUtils.setField(userService, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(userService, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        return userService;
+    }
+
+    private User saveUser(String username) {
+        User user = new User(username, username + "@example.com", "password");
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> entityManager.persist(user));
+        return user;
+    }
+
+    @Test
+    void exportDirectory_ShouldWriteOneJsonLinePerUserExceptTheCaller() throws IOException {
+        // Given
+        User caller = saveUser("carol");
+        saveUser("alice");
+        saveUser("bob");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        userService(caller).exportDirectory("carol", out);
+
+        // Then
+        List<String> usernames = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode node = new ObjectMapper().readTree(line);
+            assertThat(node.has("email")).isFalse();
+            usernames.add(node.get("username").asText());
+        }
+        assertThat(usernames).containsExactly("alice", "bob");
+    }
+
+    @Test
+    void exportDirectory_ShouldWalkEveryPageWithoutHoldingATransactionWhileWriting() throws IOException {
+        // Given
+        User caller = saveUser("zed");
+        for (int i = 0; i < UserService.MAX_DIRECTORY_LIMIT + 5; i++) {
+            saveUser(String.format("user%03d", i));
+        }
+        List<Boolean> transactionDuringWrite = new ArrayList<>();
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) {
+                transactionDuringWrite.add(TransactionSynchronizationManager.isActualTransactionActive());
+                lines.write(b);
+            }
+        };
+
+        // When
+        userService(caller).exportDirectory("zed", out);
+
+        // Then
+        String[] exported = lines.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(exported).hasSize(UserService.MAX_DIRECTORY_LIMIT + 5);
+        assertThat(new ObjectMapper().readTree(exported[exported.length - 1]).get("username").asText())
+                .isEqualTo(String.format("user%03d", UserService.MAX_DIRECTORY_LIMIT + 4));
+        assertThat(transactionDuringWrite).isNotEmpty().doesNotContain(true);
+    }
+
+    @Test
+    void exportDirectory_WhenClientDisconnects_ShouldStopWithTheIoError() {
+        // Given
+        User caller = saveUser("carol");
+        saveUser("alice");
+        OutputStream closed = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // When / Then
+        assertThatThrownBy(() -> userService(caller).exportDirectory("carol", closed))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
+    }
+}
@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import { useAuth } from '../context/AuthContext';
-import { chatService, ChatRoom, Message } from '../services/chatService';
+import { chatService, ChatRoom, Message, MESSAGE_PAGE_SIZE } from '../services/chatService';
 import { websocketService } from '../services/websocketService';
 import { formatLastSeen } from '../utils/timeUtils';
 import ChatRoomList from './ChatRoomList';
@@ -15,6 +15,7 @@ const Chat: React.FC = () => {
   const [chatRooms, setChatRooms] = useState<ChatRoom[]>([]);
   const [selectedRoom, setSelectedRoom] = useState<ChatRoom | null>(null);
   const [messages, setMessages] = useState<Message[]>([]);
+  const [hasOlderMessages, setHasOlderMessages] = useState(false);
   const [loading, setLoading] = useState(true);
   const [showCreateModal, setShowCreateModal] = useState(false);
   const [notifications, setNotifications] = useState<Array<{id: number, message: Message}>>([]);
@@ -25,8 +26,14 @@ const Chat: React.FC = () => {
   const [currentTime, setCurrentTime] = useState(new Date());
   const [typingUsers, setTypingUsers] = useState<string[]>([]);
   
+  // Bumped on every STOMP reconnect so room subscriptions are re-created
+  const [connectionEpoch, setConnectionEpoch] = useState(0);
+  
   // Use ref to track current room to avoid closure issues
   const selectedRoomRef = React.useRef<ChatRoom | null>(null);
+  
+  // Highest message seq seen per room; sent as the resume point after a reconnect
+  const lastSeqRef = React.useRef<Record<number, number>>({});
 
   useEffect(() => {
     if (user) {
@@ -94,64 +101,8 @@ const Chat: React.FC = () => {
       
       // Subscribe to all rooms for messages
       chatRooms.forEach(room => {
-        websocketService.subscribeToRoom(room.id, (message) => {
-          const currentRoom = selectedRoomRef.current;
-          
-          // Only add message to current view if it's for the selected room
-          if (currentRoom && message.chatRoom.id === currentRoom.id) {
-            setMessages(prev => {
-              // Check if message already exists to avoid duplicates
-              if (prev.find(m => m.id === message.id)) {
-                return prev;
-              }
-              return [...prev, message];
-            });
-            
-            // Auto-mark incoming messages as read if not from current user
-            if (message.sender.id !== user?.id && !message.isRead) {
-              // Mark as read with a small delay to ensure message is visible
-              setTimeout(async () => {
-                try {
-                  await chatService.markMessageAsRead(currentRoom.id, message.id);
-                  
-                  // Update local state immediately
-                  setMessages(prev => 
-                    prev.map(m => 
-                      m.id === message.id 
-                        ? { ...m, isRead: true, readAt: new Date().toISOString() }
-                        : m
-                    )
-                  );
-                } catch (error) {
-                  console.warn('Failed to auto-mark message as read:', error);
-                }
-              }, 500); // 500ms delay
-            }
-          }
-          
-          // Always update chat room list to show latest message (for all rooms)
-          setChatRooms(prevRooms => 
-            prevRooms.map(r => 
-              r.id === message.chatRoom.id 
-                ? { 
-                    ...r, 
-                    lastMessage: message, 
-                    lastMessageTime: message.createdAt,
-                    // Increment unread count if message is not from current user and not for current room
-                    unreadCount: (message.sender.id !== user?.id && (!currentRoom || currentRoom.id !== message.chatRoom.id)) 
-                      ? (r.unreadCount || 0) + 1 
-                      : r.unreadCount
-                  }
-                : r
-            )
-          );
-          
-          // Show notification if message is not from current room and not from current user
-          if ((!currentRoom || message.chatRoom.id !== currentRoom.id) && message.sender.id !== user?.id) {
-            const notificationId = Date.now();
-            setNotifications(prev => [...prev, { id: notificationId, message }]);
-          }
-        });
+        rememberSeq(room.id, room.lastMessageSeq, false);
+        websocketService.subscribeToRoom(room.id, (message) => handleRoomMessage(message, true));
       });
       
       // Subscribe to typing indicators and message status for the selected room
@@ -161,7 +112,7 @@ const Chat: React.FC = () => {
         websocketService.subscribeToMessageStatus(selectedRoom.id, handleMessageStatusUpdate);
       }
     }
-  }, [chatRooms, selectedRoom]);
+  }, [chatRooms, selectedRoom, connectionEpoch]);
 
   // Update current time every minute for real-time "last seen" updates
   useEffect(() => {
@@ -174,6 +125,99 @@ const Chat: React.FC = () => {
 
 
 
+  const rememberSeq = (roomId: number, seq: number | undefined, advance: boolean) => {
+    if (seq === undefined || seq === null) return;
+    const known = lastSeqRef.current[roomId];
+    if (known === undefined || (advance && seq > known)) {
+      lastSeqRef.current[roomId] = seq;
+    }
+  };
+
+  // Live and resynced messages both come through here; notify is off for resynced backlog
+  const handleRoomMessage = (message: Message, notify: boolean) => {
+    const currentRoom = selectedRoomRef.current;
+    rememberSeq(message.chatRoomId, message.seq, true);
+    
+    // Only add message to current view if it's for the selected room
+    if (currentRoom && message.chatRoomId === currentRoom.id) {
+      setMessages(prev => {
+        // Check if message already exists to avoid duplicates
+        if (prev.find(m => m.id === message.id)) {
+          return prev;
+        }
+        // Resynced messages can land after live ones that arrived first; keep seq order
+        if (message.seq !== undefined && prev.length > 0 && (prev[prev.length - 1].seq ?? 0) > message.seq) {
+          const index = prev.findIndex(m => (m.seq ?? 0) > message.seq!);
+          return [...prev.slice(0, index), message, ...prev.slice(index)];
+        }
+        return [...prev, message];
+      });
+      
+      // Auto-mark incoming messages as read if not from current user
+      if (message.sender.id !== user?.id && !message.isRead && message.seq !== undefined) {
+        scheduleReadUpTo(currentRoom.id, message.seq);
+      }
+    }
+    
+    // Always update chat room list to show latest message (for all rooms)
+    setChatRooms(prevRooms => 
+      prevRooms.map(r => 
+        r.id === message.chatRoomId 
+          ? { 
+              ...r, 
+              lastMessage: message, 
+              lastMessageTime: message.createdAt,
+              // Increment unread count if message is not from current user and not for current room
+              unreadCount: (message.sender.id !== user?.id && (!currentRoom || currentRoom.id !== message.chatRoomId)) 
+                ? (r.unreadCount || 0) + 1 
+                : r.unreadCount
+            }
+          : r
+      )
+    );
+    
+    // Show notification if message is not from current room and not from current user
+    if (notify && (!currentRoom || message.chatRoomId !== currentRoom.id) && message.sender.id !== user?.id) {
+      const notificationId = Date.now();
+      setNotifications(prev => [...prev, { id: notificationId, message }]);
+    }
+  };
+
+  // Fetch everything sent while the connection was down. If a room missed more than a page,
+  // or we are no longer in it, fall back to reloading the room list and the open room.
+  const handleReconnect = async () => {
+    setConnectionEpoch(epoch => epoch + 1);
+    const afterSeq = { ...lastSeqRef.current };
+    try {
+      const results = await chatService.resync(afterSeq);
+      let stale = results.length < Object.keys(afterSeq).length;
+      results.forEach(result => {
+        result.messages.forEach(message => handleRoomMessage(message, false));
+        if (!result.complete) {
+          stale = true;
+        }
+      });
+      if (stale) {
+        await reloadAfterGap();
+      }
+    } catch (error) {
+      console.error('Failed to resync after reconnect:', error);
+      await reloadAfterGap();
+    }
+  };
+
+  const reloadAfterGap = async () => {
+    lastSeqRef.current = {};
+    await refreshChatRooms();
+    const currentRoom = selectedRoomRef.current;
+    if (currentRoom) {
+      const roomMessages = await chatService.getChatRoomMessages(currentRoom.id);
+      roomMessages.forEach(message => rememberSeq(currentRoom.id, message.seq, true));
+      setMessages(roomMessages);
+      setHasOlderMessages(roomMessages.length === MESSAGE_PAGE_SIZE);
+    }
+  };
+
   const initializeChat = async () => {
     try {
       // Connect to WebSocket (without global message handler to avoid duplicates)
@@ -184,6 +228,10 @@ const Chat: React.FC = () => {
       
       // Subscribe to user status updates
       websocketService.subscribeToUserStatus(handleUserStatusUpdate);
+
+      websocketService.subscribeToErrors(handleSendError);
+      
+      websocketService.onReconnect(handleReconnect);
       
       // Set user as online first, then load chat rooms
       await chatService.updateOnlineStatus(true);
@@ -192,21 +240,9 @@ const Chat: React.FC = () => {
       await new Promise(resolve => setTimeout(resolve, 500));
       
       // Load chat rooms
+      // Rooms arrive with their last message and unread count, ordered by last activity
       const rooms = await chatService.getChatRooms();
-      
-      // Load last message for each room
-      const roomsWithLastMessages = await Promise.all(
-        rooms.map(async (room) => {
-          const lastMessage = await chatService.getLastMessage(room.id);
-          return {
-            ...room,
-            lastMessage,
-            lastMessageTime: lastMessage?.createdAt
-          };
-        })
-      );
-      
-      setChatRooms(roomsWithLastMessages);
+      setChatRooms(rooms);
       
       // Don't auto-select a room - let user choose
     } catch (error) {
@@ -220,7 +256,9 @@ const Chat: React.FC = () => {
     if (selectedRoom) {
       try {
         const roomMessages = await chatService.getChatRoomMessages(selectedRoom.id);
+        roomMessages.forEach(message => rememberSeq(selectedRoom.id, message.seq, true));
         setMessages(roomMessages);
+        setHasOlderMessages(roomMessages.length === MESSAGE_PAGE_SIZE);
         
         // Mark unread messages as read
         await markMessagesAsRead(roomMessages);
@@ -230,35 +268,74 @@ const Chat: React.FC = () => {
     }
   };
 
-  const markMessagesAsRead = async (messages: Message[]) => {
-    if (!selectedRoom || !user) return;
+  const loadOlderMessages = async () => {
+    if (!selectedRoom || messages.length === 0) return;
+
+    try {
+      const olderMessages = await chatService.getChatRoomMessages(selectedRoom.id, messages[0].id);
+      setMessages(prev => [...olderMessages.filter(m => !prev.some(p => p.id === m.id)), ...prev]);
+      setHasOlderMessages(olderMessages.length === MESSAGE_PAGE_SIZE);
+    } catch (error) {
+      console.error('Failed to load older messages:', error);
+    }
+  };
+
+  // Read receipts are watermarks on the room's message seq, so a burst of visible messages collapses into one request
+  const pendingReadRef = React.useRef<{ roomId: number; upTo: number } | null>(null);
+  const readTimerRef = React.useRef<NodeJS.Timeout | null>(null);
+
+  const scheduleReadUpTo = (roomId: number, seq: number) => {
+    const pending = pendingReadRef.current;
+    if (pending && pending.roomId === roomId && pending.upTo >= seq) {
+      return;
+    }
+    if (pending && pending.roomId !== roomId) {
+      flushReadUpTo();
+    }
+    pendingReadRef.current = { roomId, upTo: seq };
     
-    // Find messages that are not from current user and not yet read
-    const unreadMessages = messages.filter(msg => 
-      msg.sender.id !== user.id && !msg.isRead
+    // Update local state immediately for better UX
+    setMessages(prev => 
+      prev.map(m => 
+        m.sender.id !== user?.id && m.seq !== undefined && m.seq <= seq && !m.isRead
+          ? { ...m, isRead: true, readAt: new Date().toISOString() }
+          : m
+      )
     );
     
-    // Mark each unread message as read
-    for (const message of unreadMessages) {
-      try {
-        await chatService.markMessageAsRead(selectedRoom.id, message.id);
-        
-        // Update local state immediately for better UX
-        setMessages(prev => 
-          prev.map(m => 
-            m.id === message.id 
-              ? { ...m, isRead: true, readAt: new Date().toISOString() }
-              : m
-          )
-        );
-      } catch (error) {
-        console.warn('Failed to mark message as read:', error);
-      }
+    if (!readTimerRef.current) {
+      readTimerRef.current = setTimeout(flushReadUpTo, 500);
     }
+  };
+
+  const flushReadUpTo = async () => {
+    if (readTimerRef.current) {
+      clearTimeout(readTimerRef.current);
+      readTimerRef.current = null;
+    }
+    const pending = pendingReadRef.current;
+    pendingReadRef.current = null;
+    if (!pending) return;
     
-    // Refresh chat room list to update unread counts
-    if (unreadMessages.length > 0) {
+    try {
+      await chatService.markReadUpTo(pending.roomId, pending.upTo);
+      
+      // Refresh chat room list to update unread counts
       refreshChatRooms();
+    } catch (error) {
+      console.warn('Failed to mark messages as read:', error);
+    }
+  };
+
+  const markMessagesAsRead = async (messages: Message[]) => {
+    if (!selectedRoom || !user) return;
+    
+    // Newest message from someone else that is not yet read
+    const unreadSeqs = messages
+      .filter(msg => msg.sender.id !== user.id && !msg.isRead && msg.seq !== undefined)
+      .map(msg => msg.seq!);
+    if (unreadSeqs.length > 0) {
+      scheduleReadUpTo(selectedRoom.id, Math.max(...unreadSeqs));
     }
   };
 
@@ -266,31 +343,11 @@ const Chat: React.FC = () => {
     const currentRoom = selectedRoomRef.current;
     if (!currentRoom || !user) return;
     
-    // Get current messages and mark unread ones as read
-    const currentMessages = messages.filter(msg => 
-      msg.sender.id !== user.id && !msg.isRead
-    );
-    
-    for (const message of currentMessages) {
-      try {
-        await chatService.markMessageAsRead(currentRoom.id, message.id);
-        
-        // Update local state immediately
-        setMessages(prev => 
-          prev.map(m => 
-            m.id === message.id 
-              ? { ...m, isRead: true, readAt: new Date().toISOString() }
-              : m
-          )
-        );
-      } catch (error) {
-        console.warn('Failed to mark message as read:', error);
-      }
-    }
-    
-    // Refresh chat room list to update unread counts
-    if (currentMessages.length > 0) {
-      refreshChatRooms();
+    const unreadSeqs = messages
+      .filter(msg => msg.sender.id !== user.id && !msg.isRead && msg.seq !== undefined)
+      .map(msg => msg.seq!);
+    if (unreadSeqs.length > 0) {
+      scheduleReadUpTo(currentRoom.id, Math.max(...unreadSeqs));
     }
   };
 
@@ -301,45 +358,15 @@ const Chat: React.FC = () => {
     // Find the message and check if it needs to be marked as read
     const message = messages.find(m => m.id === messageId);
     
-    if (message && message.sender.id !== user.id && !message.isRead) {
-      console.log('Marking message as read:', messageId);
-      try {
-        await chatService.markMessageAsRead(currentRoom.id, messageId);
-        
-        // Update local state immediately
-        setMessages(prev => 
-          prev.map(m => 
-            m.id === messageId 
-              ? { ...m, isRead: true, readAt: new Date().toISOString() }
-              : m
-          )
-        );
-        
-        // Refresh chat room list to update unread count
-        refreshChatRooms();
-      } catch (error) {
-        console.warn('Failed to mark message as read:', error);
-      }
+    if (message && message.sender.id !== user.id && !message.isRead && message.seq !== undefined) {
+      scheduleReadUpTo(currentRoom.id, message.seq);
     }
   };
 
   const refreshChatRooms = async () => {
     try {
       const rooms = await chatService.getChatRooms();
-      
-      // Load last message for each room
-      const roomsWithLastMessages = await Promise.all(
-        rooms.map(async (room) => {
-          const lastMessage = await chatService.getLastMessage(room.id);
-          return {
-            ...room,
-            lastMessage,
-            lastMessageTime: lastMessage?.createdAt
-          };
-        })
-      );
-      
-      setChatRooms(roomsWithLastMessages);
+      setChatRooms(rooms);
     } catch (error) {
       console.error('Failed to refresh chat rooms:', error);
     }
@@ -356,6 +383,10 @@ const Chat: React.FC = () => {
   const handleTypingChange = async (isTyping: boolean) => {
     console.log('Typing change:', isTyping, 'Room:', selectedRoom?.id);
     if (selectedRoom && localStorage.getItem('token') && user) {
+      // Prefer the open STOMP session; the REST endpoint is only a fallback while reconnecting
+      if (websocketService.sendTypingIndicator(selectedRoom.id, isTyping)) {
+        return;
+      }
       try {
         await chatService.sendTypingIndicator(selectedRoom.id, isTyping);
         console.log('Typing indicator sent successfully');
@@ -401,12 +432,25 @@ const Chat: React.FC = () => {
   };
 
   const handleMessageStatusUpdate = (statusUpdate: any) => {
+    // A READ status carries each reader's watermark seq: they have read every message up to it.
+    // Only our own messages change state when someone else's watermark moves.
+    if (statusUpdate.statusType !== 'READ') {
+      return;
+    }
+    const readers: Record<string, number> = statusUpdate.readers || { [statusUpdate.readerId]: statusUpdate.upToSeq };
+    const othersUpTo = Math.max(0, ...Object.entries(readers)
+      .filter(([readerId]) => Number(readerId) !== user?.id)
+      .map(([, upTo]) => upTo));
+    if (othersUpTo === 0) {
+      return;
+    }
+    
     setMessages(prev => 
       prev.map(message => 
-        message.id === statusUpdate.messageId 
+        message.sender.id === user?.id && message.seq !== undefined && message.seq <= othersUpTo && !message.isRead
           ? { 
               ...message, 
-              isRead: statusUpdate.statusType === 'READ' ? true : message.isRead,
+              isRead: true,
               readAt: statusUpdate.readAt || message.readAt
             }
           : message
@@ -459,9 +503,9 @@ const Chat: React.FC = () => {
         message: {
           id: 0,
           content: `Chat "${chatRoomToDelete.name}" deleted`,
-          sender: { username: 'System', id: 0, email: '' },
+          sender: { username: 'System', id: 0 },
           createdAt: new Date().toISOString(),
-          chatRoom: chatRoomToDelete,
+          chatRoomId: chatRoomToDelete.id,
           type: 'LEAVE' as Message['type']
         }
       }]);
@@ -475,9 +519,9 @@ const Chat: React.FC = () => {
         message: {
           id: 0,
           content: 'Failed to delete chat. Please try again.',
-          sender: { username: 'System', id: 0, email: '' },
+          sender: { username: 'System', id: 0 },
           createdAt: new Date().toISOString(),
-          chatRoom: chatRoomToDelete,
+          chatRoomId: chatRoomToDelete.id,
           type: 'LEAVE' as Message['type']
         }
       }]);
@@ -490,6 +534,14 @@ const Chat: React.FC = () => {
     setDeleteConfirm({ isOpen: false, chatRoom: null });
   };
 
+  const handleSendError = (error: any) => {
+    console.error('Message delivery error:', error);
+    if (error.errorType === 'MESSAGE_NOT_PERSISTED') {
+      // Already broadcast but never stored; drop it so the view matches history
+      setMessages(prev => prev.filter(m => m.id !== error.messageId));
+    }
+  };
+
   const handleUserStatusUpdate = (statusUpdate: any) => {
     // Update online status in chat rooms
     setChatRooms(prevRooms => 
@@ -548,9 +600,9 @@ const Chat: React.FC = () => {
             content: newChatRoom.type === 'DIRECT' 
               ? `${creatorName} started a conversation with you`
               : `${creatorName} added you to "${newChatRoom.name}"`,
-            sender: { username: 'System', id: 0, email: '' },
+            sender: { username: 'System', id: 0 },
             createdAt: new Date().toISOString(),
-            chatRoom: newChatRoom,
+            chatRoomId: newChatRoom.id,
             type: 'JOIN' as Message['type']
           }
         }]);
@@ -567,24 +619,11 @@ const Chat: React.FC = () => {
     // We just need to reload to ensure we have the latest state
     try {
       const rooms = await chatService.getChatRooms();
-      
-      // Load last message for each room
-      const roomsWithLastMessages = await Promise.all(
-        rooms.map(async (room) => {
-          const lastMessage = await chatService.getLastMessage(room.id);
-          return {
-            ...room,
-            lastMessage,
-            lastMessageTime: lastMessage?.createdAt
-          };
-        })
-      );
-      
-      setChatRooms(roomsWithLastMessages);
+      setChatRooms(rooms);
       
       // Select the newly created room (usually the first one after sorting)
-      if (roomsWithLastMessages.length > 0) {
-        const newRoom = roomsWithLastMessages[0];
+      if (rooms.length > 0) {
+        const newRoom = rooms[0];
         setSelectedRoom(newRoom);
       }
     } catch (error) {
@@ -684,6 +723,8 @@ const Chat: React.FC = () => {
               currentUser={user!} 
               typingUsers={typingUsers}
               onMessageVisible={handleMessageVisible}
+              hasOlderMessages={hasOlderMessages}
+              onLoadOlder={loadOlderMessages}
             />
             
             <MessageInput 
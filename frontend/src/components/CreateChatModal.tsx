@@ -10,6 +10,8 @@ interface CreateChatModalProps {
   onExistingChatSelected: (room: ChatRoom) => void;
 }
 
+const USER_PAGE_SIZE = 50;
+
 const CreateChatModal: React.FC<CreateChatModalProps> = ({ 
   isOpen, 
   onClose, 
@@ -22,6 +24,7 @@ const CreateChatModal: React.FC<CreateChatModalProps> = ({
   const [chatName, setChatName] = useState('');
   const [searchQuery, setSearchQuery] = useState('');
   const [users, setUsers] = useState<User[]>([]);
+  const [hasMoreUsers, setHasMoreUsers] = useState(false);
   const [selectedUsers, setSelectedUsers] = useState<User[]>([]);
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState<string>('');
@@ -33,28 +36,46 @@ const CreateChatModal: React.FC<CreateChatModalProps> = ({
   }, [isOpen]);
 
   useEffect(() => {
-    if (searchQuery.trim()) {
-      searchUsers();
-    } else {
+    if (!searchQuery.trim()) {
       loadUsers();
+      return;
     }
+    // Wait for a pause in typing, and drop responses for queries that were already replaced
+    let cancelled = false;
+    const timer = setTimeout(async () => {
+      try {
+        const searchResults = await chatService.searchUsers(searchQuery);
+        if (!cancelled) {
+          setUsers(searchResults);
+          setHasMoreUsers(false);
+        }
+      } catch (error) {
+        console.error('Failed to search users:', error);
+      }
+    }, 250);
+    return () => {
+      cancelled = true;
+      clearTimeout(timer);
+    };
   }, [searchQuery]);
 
   const loadUsers = async () => {
     try {
-      const allUsers = await chatService.getAllUsers();
-      setUsers(allUsers);
+      const page = await chatService.getUsers(undefined, USER_PAGE_SIZE);
+      setUsers(page);
+      setHasMoreUsers(page.length === USER_PAGE_SIZE);
     } catch (error) {
       console.error('Failed to load users:', error);
     }
   };
 
-  const searchUsers = async () => {
+  const loadMoreUsers = async () => {
     try {
-      const searchResults = await chatService.searchUsers(searchQuery);
-      setUsers(searchResults);
+      const page = await chatService.getUsers(users[users.length - 1]?.username, USER_PAGE_SIZE);
+      setUsers(prev => [...prev, ...page]);
+      setHasMoreUsers(page.length === USER_PAGE_SIZE);
     } catch (error) {
-      console.error('Failed to search users:', error);
+      console.error('Failed to load users:', error);
     }
   };
 
@@ -198,6 +219,11 @@ const CreateChatModal: React.FC<CreateChatModalProps> = ({
                 </div>
               ))}
             </div>
+            {hasMoreUsers && (
+              <button type="button" className="load-more-users" onClick={loadMoreUsers}>
+                Load more
+              </button>
+            )}
           </div>
 
           <div className="modal-actions">
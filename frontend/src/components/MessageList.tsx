@@ -7,9 +7,11 @@ interface MessageListProps {
   currentUser: User;
   typingUsers?: string[];
   onMessageVisible?: (messageId: number) => void;
+  hasOlderMessages?: boolean;
+  onLoadOlder?: () => void;
 }
 
-const MessageList: React.FC<MessageListProps> = ({ messages, currentUser, typingUsers = [], onMessageVisible }) => {
+const MessageList: React.FC<MessageListProps> = ({ messages, currentUser, typingUsers = [], onMessageVisible, hasOlderMessages = false, onLoadOlder }) => {
   const messagesEndRef = useRef<HTMLDivElement>(null);
   const observerRef = useRef<IntersectionObserver | null>(null);
 
@@ -95,6 +97,14 @@ const MessageList: React.FC<MessageListProps> = ({ messages, currentUser, typing
 
   return (
     <div className="chat-messages">
+      {hasOlderMessages && onLoadOlder && (
+        <div className="message system-message">
+          <button className="load-older-btn" onClick={onLoadOlder}>
+            Load earlier messages
+          </button>
+        </div>
+      )}
+      
       {messages.map((message) => {
         const isOwnMessage = message.sender.id === currentUser.id;
         const isSystemMessage = message.type === 'JOIN' || message.type === 'LEAVE';
@@ -3,6 +3,8 @@ import { authService } from './authService';
 
 const API_URL = process.env.REACT_APP_API_URL || 'http://localhost:8080';
 
+export const MESSAGE_PAGE_SIZE = 50;
+
 export interface ChatRoom {
   id: number;
   name: string;
@@ -13,14 +15,16 @@ export interface ChatRoom {
   lastMessage?: Message | null;
   lastMessageTime?: string;
   unreadCount?: number;
+  lastMessageSeq?: number;
 }
 
 export interface Message {
   id: number;
+  seq?: number; // Position in the room; consecutive per room, so a jump means something was missed
   content: string;
   createdAt: string;
   sender: User;
-  chatRoom: ChatRoom;
+  chatRoomId: number;
   type: 'CHAT' | 'JOIN' | 'LEAVE';
   isDelivered?: boolean;
   isRead?: boolean;
@@ -28,10 +32,16 @@ export interface Message {
   readAt?: string;
 }
 
+export interface RoomResync {
+  chatRoomId: number;
+  messages: Message[];
+  complete: boolean; // false when more was missed than fits in one page
+}
+
 export interface User {
   id: number;
   username: string;
-  email: string;
+  email?: string;
   isOnline?: boolean;
   lastSeen?: string;
 }
@@ -55,9 +65,11 @@ class ChatService {
     return response.data;
   }
 
-  async getChatRoomMessages(chatRoomId: number): Promise<Message[]> {
+  // Returns one page of history (oldest first); pass `before` to fetch the page preceding that message
+  async getChatRoomMessages(chatRoomId: number, before?: number, limit: number = MESSAGE_PAGE_SIZE): Promise<Message[]> {
     const response = await axios.get(`${API_URL}/api/chatrooms/${chatRoomId}/messages`, {
-      headers: authService.getAuthHeader()
+      headers: authService.getAuthHeader(),
+      params: { before, limit }
     });
     return response.data;
   }
@@ -98,8 +110,13 @@ class ChatService {
     return response.data;
   }
 
-  async getAllUsers(): Promise<User[]> {
-    const response = await axios.get(`${API_URL}/api/users`, {
+  // One directory page in username order; pass the last username seen to get the next page
+  async getUsers(after?: string, limit: number = 50): Promise<User[]> {
+    const params = new URLSearchParams({ limit: String(limit) });
+    if (after) {
+      params.set('after', after);
+    }
+    const response = await axios.get(`${API_URL}/api/users?${params}`, {
       headers: authService.getAuthHeader()
     });
     return response.data;
@@ -117,6 +134,21 @@ class ChatService {
     });
   }
 
+  // Advances the read watermark: every message in the room up to and including seq upToSeq is read
+  async markReadUpTo(chatRoomId: number, upToSeq: number): Promise<void> {
+    await axios.post(`${API_URL}/api/chatrooms/${chatRoomId}/read?upTo=${upToSeq}`, {}, {
+      headers: authService.getAuthHeader()
+    });
+  }
+
+  // After a reconnect: everything each room received after the given seq, oldest first
+  async resync(afterSeq: Record<number, number>, limit?: number): Promise<RoomResync[]> {
+    const response = await axios.post(`${API_URL}/api/chatrooms/resync`, { afterSeq, limit }, {
+      headers: authService.getAuthHeader()
+    });
+    return response.data;
+  }
+
   async sendTypingIndicator(chatRoomId: number, isTyping: boolean): Promise<void> {
     try {
       await axios.post(`${API_URL}/api/chatrooms/${chatRoomId}/typing?isTyping=${isTyping}`, {}, {
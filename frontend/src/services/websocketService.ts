@@ -2,19 +2,31 @@ import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
 import { Message } from './chatService';
 
+const API_URL = process.env.REACT_APP_API_URL || 'http://localhost:8080';
+// Native WebSocket first; after this many attempts in a row that never open (a proxy blocking the
+// upgrade, say), fall back to SockJS for the rest of the page's life
+const NATIVE_ATTEMPTS = 2;
+
 class WebSocketService {
   private client: Client | null = null;
   private connected = false;
+  private nativeFailures = 0;
+  private transport: 'native' | 'sockjs' = 'native';
+  private socketOpened = false;
   private subscriptions: any[] = [];
   private globalSubscriptions: any[] = []; // For user status, new chat rooms, etc.
+  private globalHandlers: Array<{ destination: string; handler: (body: any) => void }> = [];
+  private reconnectListeners: Array<() => void> = [];
+  private hasConnected = false;
+  private typingSeq = 0; // Lets the server drop typing events that arrive out of order
 
   connect(username: string, onMessageReceived: (message: Message) => void): Promise<void> {
     return new Promise((resolve, reject) => {
-      const socket = new SockJS('http://localhost:8080/ws');
       const token = localStorage.getItem('token');
       
       this.client = new Client({
-        webSocketFactory: () => socket,
+        // Called again on every reconnect, so each attempt gets a fresh socket
+        webSocketFactory: () => this.createSocket(),
         connectHeaders: {
           'Authorization': `Bearer ${token}`
         },
@@ -29,9 +41,25 @@ class WebSocketService {
       this.client.onConnect = () => {
         console.log('Connected to WebSocket');
         this.connected = true;
+        if (this.hasConnected) {
+          // Subscriptions die with the old session: restore the global ones here and let
+          // listeners resubscribe their rooms and fetch what was missed while offline
+          this.subscriptions = [];
+          this.globalSubscriptions = this.globalHandlers.map(({ destination, handler }) =>
+            this.client!.subscribe(destination, (message) => handler(JSON.parse(message.body))));
+          this.reconnectListeners.forEach(listener => listener());
+        }
+        this.hasConnected = true;
         resolve();
       };
 
+      this.client.onWebSocketClose = () => {
+        this.connected = false;
+        if (this.transport === 'native' && !this.socketOpened) {
+          this.nativeFailures++;
+        }
+      };
+
       this.client.onStompError = (frame) => {
         console.error('Broker reported error: ' + frame.headers['message']);
         console.error('Additional details: ' + frame.body);
@@ -42,11 +70,25 @@ class WebSocketService {
     });
   }
 
+  private createSocket(): any {
+    this.socketOpened = false;
+    if (typeof WebSocket !== 'undefined' && this.nativeFailures < NATIVE_ATTEMPTS) {
+      this.transport = 'native';
+      const socket = new WebSocket(API_URL.replace(/^http/, 'ws') + '/ws-native');
+      socket.addEventListener('open', () => {
+        this.socketOpened = true;
+        this.nativeFailures = 0;
+      });
+      return socket;
+    }
+    this.transport = 'sockjs';
+    return new SockJS(`${API_URL}/ws`);
+  }
+
   subscribeToRoom(roomId: number, onMessageReceived: (message: Message) => void) {
     if (this.client && this.connected) {
       const subscription = this.client.subscribe(`/topic/chatroom/${roomId}`, (message) => {
-        const receivedMessage = JSON.parse(message.body);
-        onMessageReceived(receivedMessage);
+        onMessageReceived(JSON.parse(message.body));
       });
       this.subscriptions.push(subscription);
     }
@@ -55,32 +97,39 @@ class WebSocketService {
   subscribeToNewChatRooms(username: string, onNewChatRoom: (chatRoom: any) => void) {
     if (this.client && this.connected) {
       console.log('Subscribing to new chat rooms for user:', username);
-      const subscription = this.client.subscribe('/topic/chatroom-created', (message) => {
-        console.log('Received new chat room notification:', message.body);
-        const notification = JSON.parse(message.body);
-        
-        // Check if current user is a member of this chat room
-        if (notification.memberUsernames && notification.memberUsernames.includes(username)) {
-          console.log('User is a member of this chat room, processing notification');
-          onNewChatRoom(notification.room); // Changed from notification.chatRoom to notification.room
-        } else {
-          console.log('User is not a member of this chat room, ignoring notification');
-        }
-      });
-      this.globalSubscriptions.push(subscription); // Use global subscriptions
+      // Delivered only to members of the new room, so no filtering is needed here
+      this.subscribeGlobal('/user/queue/chatroom-created', onNewChatRoom);
     }
   }
 
   subscribeToUserStatus(onStatusUpdate: (statusUpdate: any) => void) {
     if (this.client && this.connected) {
-      const subscription = this.client.subscribe('/topic/user-status', (message) => {
-        const statusUpdate = JSON.parse(message.body);
-        onStatusUpdate(statusUpdate);
-      });
-      this.globalSubscriptions.push(subscription); // Use global subscriptions
+      // Only sent for users sharing a room with us, after the change has settled
+      this.subscribeGlobal('/user/queue/user-status', onStatusUpdate);
+    }
+  }
+
+  // Per-user error frames, e.g. a sent message that could not be persisted
+  subscribeToErrors(onError: (error: any) => void) {
+    if (this.client && this.connected) {
+      this.subscribeGlobal('/user/queue/errors', onError);
     }
   }
 
+  // Global subscriptions are remembered so they can be restored after a reconnect
+  private subscribeGlobal(destination: string, handler: (body: any) => void) {
+    const subscription = this.client!.subscribe(destination, (message) => {
+      handler(JSON.parse(message.body));
+    });
+    this.globalSubscriptions.push(subscription);
+    this.globalHandlers.push({ destination, handler });
+  }
+
+  // Called after every reconnect (not the first connect)
+  onReconnect(listener: () => void) {
+    this.reconnectListeners.push(listener);
+  }
+
   subscribeToTypingIndicators(roomId: number, onTypingUpdate: (typingUpdate: any) => void) {
     if (this.client && this.connected) {
       console.log('Subscribing to typing indicators for room:', roomId);
@@ -128,6 +177,7 @@ class WebSocketService {
       }
     });
     this.globalSubscriptions = [];
+    this.globalHandlers = [];
   }
 
   sendMessage(roomId: number, content: string, username: string) {
@@ -143,6 +193,21 @@ class WebSocketService {
     }
   }
 
+  sendTypingIndicator(roomId: number, isTyping: boolean): boolean {
+    if (this.client && this.connected) {
+      this.client.publish({
+        destination: '/app/chat.typing',
+        body: JSON.stringify({
+          chatRoomId: roomId,
+          typing: isTyping,
+          seq: ++this.typingSeq
+        })
+      });
+      return true;
+    }
+    return false;
+  }
+
   addUser(roomId: number, username: string) {
     if (this.client && this.connected) {
       this.client.publish({
@@ -161,6 +226,8 @@ class WebSocketService {
     if (this.client) {
       this.client.deactivate();
       this.connected = false;
+      this.hasConnected = false;
+      this.reconnectListeners = [];
     }
   }
 }